@@ -3,6 +3,12 @@
 CREATE DATABASE IF NOT EXISTS platform CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
 USE platform;
 
+-- 主键号段表（items / orders 的 @TableGenerator，每次分配 50 个ID）
+CREATE TABLE IF NOT EXISTS id_generator (
+    name VARCHAR(64) PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
 -- 用户表
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -11,6 +17,7 @@ CREATE TABLE IF NOT EXISTS users (
     email VARCHAR(100) NOT NULL UNIQUE,
     phone VARCHAR(20) NOT NULL,
     balance DECIMAL(10,2) NOT NULL DEFAULT 0.00,
+    version BIGINT NOT NULL DEFAULT 0,
     create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_username (username),
@@ -25,6 +32,7 @@ CREATE TABLE IF NOT EXISTS items (
     price DECIMAL(10,2) NOT NULL,
     seller_id BIGINT NOT NULL,
     stock INT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0,
     available BOOLEAN NOT NULL DEFAULT FALSE,
     create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
@@ -40,14 +48,20 @@ CREATE TABLE IF NOT EXISTS orders (
     item_id BIGINT NOT NULL,
     buyer_id BIGINT NOT NULL,
     seller_id BIGINT NOT NULL,
+    quantity BIGINT NOT NULL DEFAULT 1,
     total_price DECIMAL(10,2) NOT NULL,
     status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    version BIGINT NOT NULL DEFAULT 0,
+    idempotency_key VARCHAR(64) UNIQUE,
+    reserved_until DATETIME NULL,
     create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_buyer_id (buyer_id),
     INDEX idx_seller_id (seller_id),
     INDEX idx_status (status),
     INDEX idx_item_id (item_id),
+    INDEX idx_buyer_status_time (buyer_id, status, create_time),
+    INDEX idx_seller_status_time (seller_id, status, create_time),
     FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
     FOREIGN KEY (buyer_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (seller_id) REFERENCES users(id) ON DELETE CASCADE
@@ -63,9 +77,24 @@ CREATE TABLE IF NOT EXISTS system_logs (
     INDEX idx_user_id (user_id),
     INDEX idx_operation_type (operation_type),
     INDEX idx_create_time (create_time),
+    INDEX idx_user_operation_time (user_id, operation_type, create_time),
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE SET NULL
 );
 
+-- 余额流水表（入账先追加为未合并流水，由应用批量合并进 users.balance）
+CREATE TABLE IF NOT EXISTS balance_journal (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    entry_type VARCHAR(10) NOT NULL,
+    amount DECIMAL(12,2) NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    ref_id BIGINT,
+    applied BOOLEAN NOT NULL DEFAULT FALSE,
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_user_id (user_id),
+    INDEX idx_applied (applied)
+);
+
 -- 插入初始测试数据
 
 -- 插入测试用户
@@ -74,31 +103,40 @@ INSERT INTO users (username, password, email, phone, balance) VALUES
 ('user1', 'user1.password', 'user1@example.com', '01234567890', 500.00),
 ('user2', 'user2.password', 'user2@example.com', '01234567890', 200.00);
 
--- 创建视图：用户订单统计
-CREATE VIEW user_order_stats AS
-SELECT
-    u.id AS user_id,
-    u.username,
-    COUNT(DISTINCT o.id) AS total_orders,
-    COUNT(DISTINCT CASE WHEN o.status = 'COMPLETED' THEN o.id END) AS completed_orders,
-    COUNT(DISTINCT CASE WHEN o.status = 'PENDING' THEN o.id END) AS pending_orders,
-    SUM(CASE WHEN o.status = 'COMPLETED' THEN o.total_price ELSE 0 END) AS total_spent
-FROM users u
-LEFT JOIN orders o ON u.id = o.buyer_id
-GROUP BY u.id, u.username;
+-- 用户订单汇总表（由应用增量维护，定时对账从 orders 重建）
+CREATE TABLE IF NOT EXISTS user_order_summary (
+    user_id BIGINT PRIMARY KEY,
+    total_orders BIGINT NOT NULL DEFAULT 0,
+    pending_orders BIGINT NOT NULL DEFAULT 0,
+    completed_orders BIGINT NOT NULL DEFAULT 0,
+    total_spent DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    sold_orders BIGINT NOT NULL DEFAULT 0,
+    total_earned DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
 
--- 创建视图：商品销售统计
-CREATE VIEW item_sales_stats AS
-SELECT 
-    i.id AS item_id,
-    i.name AS item_name,
-    i.price,
-    COUNT(DISTINCT o.id) AS total_orders,
-    COUNT(DISTINCT CASE WHEN o.status = 'COMPLETED' THEN o.id END) AS completed_orders,
-    SUM(CASE WHEN o.status = 'COMPLETED' THEN o.total_price ELSE 0 END) AS total_revenue
-FROM items i
-LEFT JOIN orders o ON i.id = o.item_id
-GROUP BY i.id, i.name, i.price;
+-- 商品销售汇总表
+CREATE TABLE IF NOT EXISTS item_sales_summary (
+    item_id BIGINT PRIMARY KEY,
+    total_orders BIGINT NOT NULL DEFAULT 0,
+    completed_orders BIGINT NOT NULL DEFAULT 0,
+    total_revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 迁移版本表：本脚本建出的结构等同于已执行到 V3，登记后应用启动时跳过这些迁移
+-- （checksum 为空表示由本脚本登记；新增迁移时需同步修改本脚本与这里的登记）
+CREATE TABLE IF NOT EXISTS schema_version (
+    version INT PRIMARY KEY,
+    description VARCHAR(200) NOT NULL,
+    checksum BIGINT,
+    installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT IGNORE INTO schema_version (version, description) VALUES
+(1, 'baseline'),
+(2, 'order log composite indexes'),
+(3, 'order reservation deadline');
 
 -- 显示表结构信息
 SHOW TABLES;
@@ -0,0 +1,43 @@
+package com.OpenOtkPlatform.benchmark;
+
+import com.OpenOtkPlatform.api.ItemController.ApiResponse;
+import com.OpenOtkPlatform.domain.Item;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse response;
+
+    @Setup
+    public void setup() {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        List<Item> items = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            Item item = new Item("item " + i, "a reasonably long item description number " + i, 9.99 + i, 1L, 10);
+            item.setId((long) i + 1);
+            items.add(item);
+        }
+        response = new ApiResponse(true, "Success", items);
+    }
+
+    @Benchmark
+    public byte[] serializeItemList() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,46 @@
+package com.OpenOtkPlatform.benchmark;
+
+import com.OpenOtkPlatform.PlatformApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基准测试用 Spring 上下文 - 以 H2 内存库（MySQL 兼容模式）代替 MySQL
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() { }
+
+    static ConfigurableApplicationContext start(String databaseName) {
+        return start(databaseName, WebApplicationType.NONE);
+    }
+
+    /**
+     * extraArgs 为额外的 --key=value 配置，不应与上面的默认项重复
+     */
+    static ConfigurableApplicationContext start(String databaseName, WebApplicationType type, String... extraArgs) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        System.setProperty("otk.logger.level", "WARN");
+        SpringApplication application = new SpringApplication(PlatformApplication.class);
+        application.setWebApplicationType(type);
+        List<String> args = new ArrayList<>(List.of(
+            "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--schema.migration.enabled=false",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.OpenOtkPlatform=WARN"
+        ));
+        args.addAll(Arrays.asList(extraArgs));
+        return application.run(args.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,64 @@
+package com.OpenOtkPlatform.benchmark;
+
+import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.domain.ItemSummary;
+import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.repository.ItemRepository;
+import com.OpenOtkPlatform.repository.UserRepository;
+import com.OpenOtkPlatform.service.ItemSearchIndex;
+import com.OpenOtkPlatform.service.ItemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemSearchBenchmark {
+
+    private static final String[] WORDS = {
+        "phone", "laptop", "keyboard", "mouse", "monitor", "camera", "speaker", "charger",
+        "手机", "电脑", "键盘", "鼠标", "耳机", "相机", "音箱", "充电器"
+    };
+
+    @Param({"1000", "10000"})
+    private int catalogSize;
+
+    @Param({"keyboard", "无线键盘", "cam"})
+    private String keyword;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start("search" + catalogSize);
+        User seller = context.getBean(UserRepository.class)
+            .save(new User("bench_seller", "password", "seller@bench.com", "13800000000"));
+        List<Item> items = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            String name = WORDS[i % WORDS.length] + " " + i;
+            String description = "无线 " + WORDS[(i * 7) % WORDS.length] + " wireless " + WORDS[(i * 3) % WORDS.length];
+            items.add(new Item(name, description, 10.0 + i, seller.getId(), 100));
+        }
+        context.getBean(ItemRepository.class).saveAll(items);
+        context.getBean(ItemSearchIndex.class).rebuild();
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemSummary> searchItems() {
+        return itemService.searchItems(keyword);
+    }
+}
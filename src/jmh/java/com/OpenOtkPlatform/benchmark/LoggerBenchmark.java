@@ -0,0 +1,47 @@
+package com.OpenOtkPlatform.benchmark;
+
+import com.OpenOtkPlatform.util.Logger;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logger.info 请求线程侧开销；后台输出重定向到空流
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggerBenchmark {
+
+    private Logger logger;
+    private PrintStream originalOut;
+    private long orderId = 42L;
+
+    @Setup
+    public void setup() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        logger = Logger.getInstance();
+        logger.setLevel(Logger.Level.INFO);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void infoEnabled() {
+        logger.info("logUserOperation: [ORDER_CREATE], userId: 7, orderId: " + orderId);
+    }
+
+    @Benchmark
+    public void debugDisabledSupplier() {
+        logger.debug(() -> "logUserOperation: [ORDER_CREATE], userId: 7, orderId: " + orderId);
+    }
+}
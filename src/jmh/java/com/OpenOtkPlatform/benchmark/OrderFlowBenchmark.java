@@ -0,0 +1,79 @@
+package com.OpenOtkPlatform.benchmark;
+
+import com.OpenOtkPlatform.api.OrderController;
+import com.OpenOtkPlatform.api.OrderController.CreateOrderRequest;
+import com.OpenOtkPlatform.config.SessionInterceptor;
+import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.repository.ItemRepository;
+import com.OpenOtkPlatform.repository.UserRepository;
+import com.OpenOtkPlatform.service.SessionStore;
+import com.OpenOtkPlatform.service.SessionStore.Session;
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderController.createOrder 完整下单流程（H2 代替 MySQL，不经过 HTTP）
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderFlowBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private OrderController orderController;
+    private CreateOrderRequest request;
+    private HttpServletRequest httpRequest;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start("orders");
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User buyer = new User("bench_buyer", "password", "buyer@bench.com", "13800000001");
+        buyer.setBalance(9.0e7);
+        buyer = userRepository.save(buyer);
+        User seller = userRepository.save(new User("bench_seller", "password", "seller@bench.com", "13800000002"));
+        Item item = context.getBean(ItemRepository.class)
+            .save(new Item("bench item", "benchmark item", 1.0, seller.getId(), Integer.MAX_VALUE));
+
+        orderController = context.getBean(OrderController.class);
+        request = new CreateOrderRequest();
+        request.setItemId(item.getId());
+        request.setBuyerId(buyer.getId());
+        request.setSellerId(seller.getId());
+        request.setQuantity(1L);
+        request.setTotalPrice(1.0);
+
+        // 不经过拦截器，只提供控制器读取的买家会话属性
+        Session session = context.getBean(SessionStore.class).create(buyer.getId(), buyer.getUsername());
+        httpRequest = (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+            new Class<?>[] {HttpServletRequest.class},
+            (proxy, method, args) -> "getAttribute".equals(method.getName())
+                && SessionInterceptor.SESSION_ATTRIBUTE.equals(args[0]) ? session : null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ResponseEntity<?> createOrder() {
+        return orderController.createOrder(request, null, httpRequest);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ResponseEntity<?> createOrderContended() {
+        return orderController.createOrder(request, null, httpRequest);
+    }
+}
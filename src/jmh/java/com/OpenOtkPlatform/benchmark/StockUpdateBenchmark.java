@@ -0,0 +1,96 @@
+package com.OpenOtkPlatform.benchmark;
+
+import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.repository.ItemRepository;
+import com.OpenOtkPlatform.repository.UserRepository;
+import com.OpenOtkPlatform.service.ItemService;
+import com.OpenOtkPlatform.service.OrderPlacementService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 扣库存吞吐对比（8 线程争用同一商品，H2 代替 MySQL）
+ * placeOrder：实际下单路径，锁商品行与买家行后扣库存、转账、建单；
+ * service：ItemService.reduceStock（手动扣库存接口，条件 UPDATE + 缓存失效 + 发布库存事件）；
+ * conditional：同一条条件 UPDATE，直接用 JdbcTemplate 在事务内执行；
+ * readModifyWrite：改造前的做法，事务内先读库存再写回（并发下会丢失更新，即超卖）
+ * 后两者走同一层，差值即两次往返与一次往返之差；H2 为进程内库，MySQL 上网络往返会进一步拉开差距
+ * 对比：mvn -Pbenchmark compile exec:exec -Djmh.include=StockUpdateBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class StockUpdateBenchmark {
+
+    @Param({"placeOrder", "service", "conditional", "readModifyWrite"})
+    public String path;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private OrderPlacementService orderPlacementService;
+    private Long buyerId;
+    private Long sellerId;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private Long itemId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start("stock" + path);
+        User seller = context.getBean(UserRepository.class)
+            .save(new User("stock_seller", "password", "seller@stock.com", "13800000021"));
+        Item item = context.getBean(ItemRepository.class)
+            .save(new Item("stock item", "stock benchmark item", 1.0, seller.getId(), Integer.MAX_VALUE));
+        itemId = item.getId();
+        sellerId = seller.getId();
+        User buyer = new User("stock_buyer", "password", "buyer@stock.com", "13800000022");
+        buyer.setBalance(9.0e7);
+        buyerId = context.getBean(UserRepository.class).save(buyer).getId();
+
+        itemService = context.getBean(ItemService.class);
+        orderPlacementService = context.getBean(OrderPlacementService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean reduceStock() {
+        if ("placeOrder".equals(path)) {
+            return orderPlacementService.placeOrder(itemId, buyerId, sellerId, 1L, 1.0).isSuccess();
+        }
+        if ("service".equals(path)) {
+            return itemService.reduceStock(itemId, 1);
+        }
+        if ("conditional".equals(path)) {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> jdbcTemplate.update(
+                "UPDATE items SET available = CASE WHEN stock > 1 THEN TRUE ELSE FALSE END, stock = stock - 1, "
+                    + "update_time = ?, version = version + 1 WHERE id = ? AND available = TRUE AND stock >= 1",
+                new Timestamp(System.currentTimeMillis()), itemId) == 1));
+        }
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Integer stock = jdbcTemplate.queryForObject("SELECT stock FROM items WHERE id = ?", Integer.class, itemId);
+            if (stock == null || stock < 1) {
+                return false;
+            }
+            jdbcTemplate.update("UPDATE items SET stock = ?, available = ?, update_time = ? WHERE id = ?",
+                stock - 1, stock > 1, new Timestamp(System.currentTimeMillis()), itemId);
+            return true;
+        }));
+    }
+}
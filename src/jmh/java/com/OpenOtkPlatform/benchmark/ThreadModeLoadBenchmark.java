@@ -0,0 +1,91 @@
+package com.OpenOtkPlatform.benchmark;
+
+import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.repository.ItemRepository;
+import com.OpenOtkPlatform.repository.UserRepository;
+import com.OpenOtkPlatform.service.SessionStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 平台线程 / 虚拟线程两种请求执行模式下的 HTTP 压测（64 个并发客户端，经 Tomcat 全链路）
+ * 对比：mvn -Pbenchmark compile exec:exec -Djmh.include=ThreadModeLoadBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class ThreadModeLoadBenchmark {
+
+    // 订单分页仅限管理员：用一个不对应真实用户的管理员ID签发会话
+    private static final long ADMIN_USER_ID = Long.MAX_VALUE;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest ordersPage;
+    private HttpRequest createOrder;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start("threadmode" + virtualThreads, WebApplicationType.SERVLET,
+            "--server.port=0",
+            "--session.admin-user-ids=" + ADMIN_USER_ID,
+            "--spring.threads.virtual.enabled=" + virtualThreads);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User buyer = new User("load_buyer", "password", "buyer@load.com", "13800000011");
+        buyer.setBalance(9.0e7);
+        buyer = userRepository.save(buyer);
+        User seller = userRepository.save(new User("load_seller", "password", "seller@load.com", "13800000012"));
+        Item item = context.getBean(ItemRepository.class)
+            .save(new Item("load item", "load test item", 1.0, seller.getId(), Integer.MAX_VALUE));
+
+        String base = "http://localhost:" + port + "/api/orders";
+        SessionStore sessionStore = context.getBean(SessionStore.class);
+        String authorization = SessionStore.BEARER_PREFIX
+            + sessionStore.create(buyer.getId(), buyer.getUsername()).getToken();
+        String adminAuthorization = SessionStore.BEARER_PREFIX + sessionStore.create(ADMIN_USER_ID, "admin").getToken();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ordersPage = HttpRequest.newBuilder(URI.create(base + "/page?limit=20"))
+            .header("Authorization", adminAuthorization).GET().build();
+        createOrder = HttpRequest.newBuilder(URI.create(base))
+            .header("Content-Type", "application/json")
+            .header("Authorization", authorization)
+            .POST(HttpRequest.BodyPublishers.ofString("{\"itemId\":" + item.getId()
+                + ",\"buyerId\":" + buyer.getId() + ",\"sellerId\":" + seller.getId()
+                + ",\"quantity\":1,\"totalPrice\":1.0}"))
+            .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int readOrdersPage() throws IOException, InterruptedException {
+        return client.send(ordersPage, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int createOrder() throws IOException, InterruptedException {
+        return client.send(createOrder, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,34 @@
+package com.OpenOtkPlatform.benchmark;
+
+import com.OpenOtkPlatform.util.ValidationUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationUtilBenchmark {
+
+    private String email = "someone.long_name+tag@example-mail.com";
+    private String phone = "13812345678";
+    private String username = "otk_user_2024";
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return ValidationUtil.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean isValidPhone() {
+        return ValidationUtil.isValidPhone(phone);
+    }
+
+    @Benchmark
+    public boolean isValidUsername() {
+        return ValidationUtil.isValidUsername(username);
+    }
+}
@@ -1,12 +1,19 @@
 package com.OpenOtkPlatform.api;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.OpenOtkPlatform.config.SessionInterceptor;
 import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.domain.UserProfile;
+import com.OpenOtkPlatform.service.SessionStore;
+import com.OpenOtkPlatform.service.SessionStore.Session;
 import com.OpenOtkPlatform.service.UserService;
-import com.OpenOtkPlatform.service.LogService;
+
+import java.util.concurrent.RejectedExecutionException;
 // import com.OpenOtkPlatform.util.PasswordUtil;
 // import com.OpenOtkPlatform.util.ValidationUtil;
 
@@ -18,7 +25,7 @@ public class AuthController {
     private UserService userService;
     
     @Autowired
-    private LogService logService;
+    private SessionStore sessionStore;
     
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
@@ -35,12 +42,14 @@ public class AuthController {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "Please fill all required fields"));
         }
         
-        boolean success = userService.register(username, password, email, phone);
+        boolean success;
+        try {
+            success = userService.register(username, password, email, phone);
+        } catch (RejectedExecutionException e) {
+            // 密码哈希线程池已满或等待超时
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ApiResponse(false, "Service Busy"));
+        }
         if (success) {
-            User user = userService.getUserByUsername(username);
-            if (user != null) {
-                logService.logRegister(user.getId());
-            }
             return ResponseEntity.ok(new ApiResponse(true, "Register Success"));
         }
         return ResponseEntity.badRequest().body(new ApiResponse(false, "Register Fail"));
@@ -57,32 +66,36 @@ public class AuthController {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "Please Enter Username and Password"));
         }
 
-        User user = userService.login(username, password);
+        User user;
+        try {
+            user = userService.login(username, password);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ApiResponse(false, "Service Busy"));
+        }
         if (user != null) {
-            logService.logLogin(user.getId());
-            return ResponseEntity.ok(new LoginResponse(true, "Login Success", user));
+            Session session = sessionStore.create(user.getId(), user.getUsername());
+            return ResponseEntity.ok(new LoginResponse(true, "Login Success", UserProfile.of(user),
+                session.getToken(), sessionStore.getIdleSeconds()));
         }
         return ResponseEntity.badRequest().body(new ApiResponse(false, "Username or Password incorrect"));
     }
     
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(@RequestParam Long userId) {
-        if (userId == null || userId <= 0) {
-            return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid UserId"));
+    public ResponseEntity<?> logout(HttpServletRequest request) {
+        Session session = SessionInterceptor.currentSession(request);
+        if (session == null) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid Session"));
         }
         
-        logService.logLogout(userId);
+        userService.logout(session);
         return ResponseEntity.ok(new ApiResponse(true, "Logout Success"));
     }
     
+    // 令牌已由拦截器校验并续期，这里不再查库
     @GetMapping("/validate")
-    public ResponseEntity<?> validateSession(@RequestParam Long userId) {
-        if (userId == null || userId <= 0) {
-            return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid uUserId"));
-        }
-
-        User user = userService.getUserById(userId);
-        return ResponseEntity.ok(new ApiResponse(user != null, user != null ? "Valid Session" : "inValid Session"));
+    public ResponseEntity<?> validateSession(HttpServletRequest request) {
+        Session session = SessionInterceptor.currentSession(request);
+        return ResponseEntity.ok(new ApiResponse(session != null, session != null ? "Valid Session" : "inValid Session"));
     }
     
     // TODO - finish me
@@ -200,12 +213,16 @@ public class AuthController {
     public static class LoginResponse {
         private boolean success;
         private String message;
-        private User user;
+        private UserProfile user;
+        private String token;
+        private long expiresIn;
         
-        public LoginResponse(boolean success, String message, User user) {
+        public LoginResponse(boolean success, String message, UserProfile user, String token, long expiresIn) {
             this.success = success;
             this.message = message;
             this.user = user;
+            this.token = token;
+            this.expiresIn = expiresIn;
         }
         
         // getters and setters
@@ -213,7 +230,11 @@ public class AuthController {
         public void setSuccess(boolean success) { this.success = success; }
         public String getMessage() { return message; }
         public void setMessage(String message) { this.message = message; }
-        public User getUser() { return user; }
-        public void setUser(User user) { this.user = user; }
+        public UserProfile getUser() { return user; }
+        public void setUser(UserProfile user) { this.user = user; }
+        public String getToken() { return token; }
+        public void setToken(String token) { this.token = token; }
+        public long getExpiresIn() { return expiresIn; }
+        public void setExpiresIn(long expiresIn) { this.expiresIn = expiresIn; }
     }
 }
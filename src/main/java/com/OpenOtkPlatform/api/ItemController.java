@@ -1,16 +1,33 @@
 package com.OpenOtkPlatform.api;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.domain.ItemSummary;
+import com.OpenOtkPlatform.domain.MultiGetResult;
+import com.OpenOtkPlatform.service.CatalogResponseCache;
+import com.OpenOtkPlatform.service.CatalogResponseCache.CachedResponse;
+import com.OpenOtkPlatform.service.EventStreamRegistry;
 import com.OpenOtkPlatform.service.ItemService;
 import com.OpenOtkPlatform.service.LogService;
 import com.OpenOtkPlatform.service.UserService;
+import com.OpenOtkPlatform.util.IdListUtil;
+import com.OpenOtkPlatform.util.PageUtil;
 import com.OpenOtkPlatform.util.ValidationUtil;
 
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/items")
@@ -25,6 +42,12 @@ public class ItemController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+    
+    @Autowired
+    private EventStreamRegistry eventStreamRegistry;
+    
     @PostMapping
     public ResponseEntity<?> publishItem(@RequestBody PublishItemRequest request) {
         String name = request.getName();
@@ -55,18 +78,59 @@ public class ItemController {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "seller not exists"));
         }
         
-        boolean success = itemService.publishItem(name, description, price, sellerId, stock);
-        if (success) {
-            List<Item> sellerItems = itemService.getItemsBySeller(sellerId);
-            if (!sellerItems.isEmpty()) {
-                Item latestItem = sellerItems.get(sellerItems.size() - 1);
-                logService.logItemPublish(sellerId, latestItem.getId());
-            }
-            return ResponseEntity.ok(new ApiResponse(true, "Item publish Success"));
+        Item savedItem = itemService.publishItem(name, description, price, sellerId, stock);
+        if (savedItem != null) {
+            return ResponseEntity.ok(new ApiResponse(true, "Item publish Success", savedItem.getId()));
         }
         return ResponseEntity.badRequest().body(new ApiResponse(false, "Item publish Fail"));
     }
     
+    // 批量上架：全部校验通过才写入，data 为按请求顺序的新商品ID；校验失败时 data 为无效条目下标
+    @PostMapping("/batch")
+    public ResponseEntity<?> publishItems(@RequestBody List<PublishItemRequest> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > ItemService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid batch size"));
+        }
+        
+        Set<Long> sellerIds = new HashSet<>();
+        for (PublishItemRequest request : requests) {
+            if (request != null && request.getSellerId() != null) {
+                sellerIds.add(request.getSellerId());
+            }
+        }
+        // 卖家存在性一次查询完成
+        Set<Long> existingSellers = userService.getExistingUserIds(sellerIds);
+        
+        List<Integer> invalidIndexes = new ArrayList<>();
+        List<Item> newItems = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            PublishItemRequest request = requests.get(i);
+            if (request == null
+                || !ItemService.isValidItem(request.getName(), request.getDescription(),
+                                            request.getPrice(), request.getSellerId(), request.getStock())
+                || !existingSellers.contains(request.getSellerId())
+            ) {
+                invalidIndexes.add(i);
+                continue;
+            }
+            newItems.add(new Item(request.getName(), request.getDescription(), request.getPrice(),
+                request.getSellerId(), request.getStock()));
+        }
+        if (!invalidIndexes.isEmpty()) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid arg", invalidIndexes));
+        }
+        
+        List<Item> savedItems = itemService.publishItems(newItems);
+        if (savedItems == null) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Item publish Fail"));
+        }
+        List<Long> itemIds = new ArrayList<>(savedItems.size());
+        for (Item item : savedItems) {
+            itemIds.add(item.getId());
+        }
+        return ResponseEntity.ok(new ApiResponse(true, "Item publish Success", itemIds));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<?> getItemById(@PathVariable Long id) {
         if (id == null || id <= 0) {
@@ -80,29 +144,73 @@ public class ItemController {
         return ResponseEntity.ok(new ApiResponse(true, "Success", item));
     }
     
+    // 实时推送（SSE）：该商品的库存变化，事件名 stock；与商品详情一样无需登录
+    @GetMapping(value = "/{id}/stream", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> streamItemEvents(@PathVariable Long id) {
+        if (id == null || id <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (itemService.getItemById(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        SseEmitter emitter = eventStreamRegistry.openItemStream(id);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
     @GetMapping
-    public ResponseEntity<?> getAllItems() {
-        List<Item> items = itemService.getAllItems();
-        return ResponseEntity.ok(new ApiResponse(true, "Success", items));
+    public ResponseEntity<?> getAllItems(WebRequest request) {
+        return cachedResponse(request, "items", () -> new ApiResponse(true, "Success", itemService.getAllItems()));
+    }
+    
+    // 批量查询：GET /api/items?ids=1,2,3，found 按请求顺序返回完整商品，missing 为不存在的ID
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getItemsByIds(@RequestParam List<Long> ids) {
+        List<Long> itemIds = IdListUtil.normalize(ids);
+        if (itemIds.isEmpty() || itemIds.size() > IdListUtil.MAX_IDS) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid ids"));
+        }
+        
+        MultiGetResult<Item> result = itemService.getItemsByIds(itemIds);
+        return ResponseEntity.ok(new ApiResponse(true, "Success", result));
+    }
+    
+    // 游标分页：nextCursor 为空表示已到末页
+    @GetMapping("/page")
+    public ResponseEntity<?> getItemsPage(@RequestParam(required = false) Long lastId,
+                                          @RequestParam(required = false) Integer limit) {
+        int pageSize = PageUtil.clampPageSize(limit);
+        List<ItemSummary> items = itemService.getItemsAfter(lastId, pageSize);
+        Long nextCursor = items.size() == pageSize ? items.get(items.size() - 1).getId() : null;
+        return ResponseEntity.ok(new ApiResponse(true, "Success", new PageResponse(items, nextCursor)));
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItems() {
+        StreamingResponseBody body = out -> itemService.exportItems(out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
     
     @GetMapping("/seller/{sellerId}")
-    public ResponseEntity<?> getItemsBySeller(@PathVariable Long sellerId) {
+    public ResponseEntity<?> getItemsBySeller(@PathVariable Long sellerId, WebRequest request) {
         if (sellerId == null || sellerId <= 0) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid sellerId"));
         }
         
-        List<Item> items = itemService.getItemsBySeller(sellerId);
-        return ResponseEntity.ok(new ApiResponse(true, "Success", items));
+        return cachedResponse(request, "items:seller:" + sellerId,
+            () -> new ApiResponse(true, "Success", itemService.getItemsBySeller(sellerId)));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<?> searchItems(@RequestParam String keyword) {
+    public ResponseEntity<?> searchItems(@RequestParam String keyword, WebRequest request) {
         if (keyword == null || keyword.trim().isEmpty()) {
-            return getAllItems();
+            return getAllItems(request);
         }
         
-        List<Item> items = itemService.searchItems(keyword);
+        List<ItemSummary> items = itemService.searchItems(keyword);
         return ResponseEntity.ok(new ApiResponse(true, "Success", items));
     }
     
@@ -222,6 +330,38 @@ public class ItemController {
         public void setStock(Integer stock) { this.stock = stock; }
     }
 
+    /**
+     * 返回缓存的已编码响应；If-None-Match / If-Modified-Since 匹配时 checkNotModified 已写好 304，返回 null 即可
+     * no-cache 要求浏览器每次带上 ETag 回源校验，而不是按 Last-Modified 启发式缓存
+     */
+    private ResponseEntity<?> cachedResponse(WebRequest request, String key, Supplier<Object> body) {
+        CachedResponse response = catalogResponseCache.get(key, body);
+        if (request.checkNotModified(response.getEtag(), response.getLastModified())) {
+            catalogResponseCache.recordNotModified();
+            return null;
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(CacheControl.noCache())
+            .body(response.getBody());
+    }
+    
+    public static class PageResponse {
+        private List<?> records;
+        private Long nextCursor;
+        
+        public PageResponse(List<?> records, Long nextCursor) {
+            this.records = records;
+            this.nextCursor = nextCursor;
+        }
+        
+        // getters and setters
+        public List<?> getRecords() { return records; }
+        public void setRecords(List<?> records) { this.records = records; }
+        public Long getNextCursor() { return nextCursor; }
+        public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+    }
+
     public static class ApiResponse {
         private boolean success;
         private String message;
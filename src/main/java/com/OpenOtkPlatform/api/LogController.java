@@ -0,0 +1,87 @@
+package com.OpenOtkPlatform.api;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.OpenOtkPlatform.config.SessionInterceptor;
+import com.OpenOtkPlatform.domain.SystemLog;
+import com.OpenOtkPlatform.service.LogService;
+import com.OpenOtkPlatform.util.PageUtil;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/logs")
+public class LogController {
+
+    @Autowired
+    private LogService logService;
+
+    // 审计日志仅限管理员
+    @GetMapping("/page")
+    public ResponseEntity<?> getLogsPage(@RequestParam(required = false) Long lastId,
+                                         @RequestParam(required = false) Integer limit,
+                                         HttpServletRequest httpRequest) {
+        if (!SessionInterceptor.isAdmin(httpRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        int pageSize = PageUtil.clampPageSize(limit);
+        List<SystemLog> logs = logService.getLogsAfter(lastId, pageSize);
+        Long nextCursor = logs.size() == pageSize ? logs.get(logs.size() - 1).getId() : null;
+        return ResponseEntity.ok(new ApiResponse(true, "Success", new PageResponse(logs, nextCursor)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportLogs(HttpServletRequest httpRequest) {
+        if (!SessionInterceptor.isAdmin(httpRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        StreamingResponseBody body = out -> logService.exportLogs(out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    public static class PageResponse {
+        private List<?> records;
+        private Long nextCursor;
+
+        public PageResponse(List<?> records, Long nextCursor) {
+            this.records = records;
+            this.nextCursor = nextCursor;
+        }
+
+        // getters and setters
+        public List<?> getRecords() { return records; }
+        public void setRecords(List<?> records) { this.records = records; }
+        public Long getNextCursor() { return nextCursor; }
+        public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+    }
+
+    public static class ApiResponse {
+        private boolean success;
+        private String message;
+        private Object data;
+
+        public ApiResponse(boolean success, String message) {
+            this.success = success;
+            this.message = message;
+        }
+
+        public ApiResponse(boolean success, String message, Object data) {
+            this.success = success;
+            this.message = message;
+            this.data = data;
+        }
+
+        // getters and setters
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+        public Object getData() { return data; }
+        public void setData(Object data) { this.data = data; }
+    }
+}
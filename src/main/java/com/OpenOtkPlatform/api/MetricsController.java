@@ -0,0 +1,62 @@
+package com.OpenOtkPlatform.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import com.OpenOtkPlatform.service.ItemCache;
+import com.OpenOtkPlatform.service.MetricsRegistry;
+import com.OpenOtkPlatform.service.OptimisticRetry;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    private static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8");
+
+    @GetMapping("/cache")
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(new ApiResponse(true, "Success", itemCache.stats()));
+    }
+
+    // 乐观锁冲突最多的商品 / 订单 / 用户ID
+    @GetMapping("/contention")
+    public ResponseEntity<?> getContention(@RequestParam(defaultValue = "10") int limit) {
+        int topN = Math.max(1, Math.min(limit, 100));
+        return ResponseEntity.ok(new ApiResponse(true, "Success", optimisticRetry.getHotKeys(topN)));
+    }
+
+    @GetMapping("/prometheus")
+    public ResponseEntity<String> scrape() {
+        return ResponseEntity.ok().contentType(PROMETHEUS_TEXT).body(metricsRegistry.scrape());
+    }
+
+    public static class ApiResponse {
+        private boolean success;
+        private String message;
+        private Object data;
+
+        public ApiResponse(boolean success, String message, Object data) {
+            this.success = success;
+            this.message = message;
+            this.data = data;
+        }
+
+        // getters and setters
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+        public Object getData() { return data; }
+        public void setData(Object data) { this.data = data; }
+    }
+}
@@ -1,15 +1,36 @@
 package com.OpenOtkPlatform.api;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.OpenOtkPlatform.config.SessionInterceptor;
+import com.OpenOtkPlatform.domain.Item;
 import com.OpenOtkPlatform.domain.Order;
+import com.OpenOtkPlatform.domain.OrderSummary;
+import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.service.IdempotencyStore;
+import com.OpenOtkPlatform.service.MetricsRegistry;
+import com.OpenOtkPlatform.service.OrderPlacementService;
+import com.OpenOtkPlatform.service.OrderPlacementService.Outcome;
+import com.OpenOtkPlatform.service.OrderPlacementService.PlacementRequest;
+import com.OpenOtkPlatform.service.OrderPlacementService.PlacementResult;
 import com.OpenOtkPlatform.service.OrderService;
-import com.OpenOtkPlatform.service.LogService;
 import com.OpenOtkPlatform.service.UserService;
 import com.OpenOtkPlatform.service.ItemService;
+import com.OpenOtkPlatform.util.PageUtil;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -19,7 +40,7 @@ public class OrderController {
     private OrderService orderService;
     
     @Autowired
-    private LogService logService;
+    private OrderPlacementService orderPlacementService;
     
     @Autowired
     private UserService userService;
@@ -27,8 +48,38 @@ public class OrderController {
     @Autowired
     private ItemService itemService;
     
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+    
+    // 下单结果计数：成功 / 库存不足 / 余额不足 / 参数无效 / 异常
+    private final Map<Outcome, LongAdder> placementOutcomes = new EnumMap<>(Outcome.class);
+    private LongAdder placementErrors;
+    private LongAdder placementReplays;
+    
+    @PostConstruct
+    public void initMetrics() {
+        for (Outcome outcome : Outcome.values()) {
+            placementOutcomes.put(outcome, placementCounter(outcome.name().toLowerCase()));
+        }
+        placementErrors = placementCounter("error");
+        placementReplays = placementCounter("replayed");
+    }
+    
+    private LongAdder placementCounter(String outcome) {
+        return metricsRegistry.counter("otk_order_placement_total", "Order placement outcomes",
+            MetricsRegistry.labels("outcome", outcome));
+    }
+    
+    // 订单只对买卖双方（及管理员）可见；确认由卖家、确认收货由买家、取消由任一方操作
+    private static boolean isParty(HttpServletRequest httpRequest, Order order) {
+        return SessionInterceptor.isCurrentUser(httpRequest, order.getBuyerId())
+            || SessionInterceptor.isCurrentUser(httpRequest, order.getSellerId());
+    }
+    
     @PostMapping
-    public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest request) {
+    public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest request,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                         HttpServletRequest httpRequest) {
         Long itemId = request.getItemId();
         Long buyerId = request.getBuyerId();
         Long sellerId = request.getSellerId();
@@ -42,28 +93,112 @@ public class OrderController {
         ) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid arg"));
         }
+        if (!SessionInterceptor.isCurrentUser(httpRequest, buyerId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         
-        // 验证买家余额是否足够
-        Double buyerBalance = userService.getUserById(buyerId).getBalance();
-        if (buyerBalance < totalPrice) {
-            return ResponseEntity.badRequest().body(new ApiResponse(false, "No Sufficient Balance"));
+        // 重试请求：直接返回原订单，不再触碰库存与余额
+        if (idempotencyKey != null) {
+            if (!IdempotencyStore.isValidKey(idempotencyKey)) {
+                return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid Idempotency-Key"));
+            }
+            ResponseEntity<?> replay = replayOrder(orderService.getRememberedOrder(idempotencyKey), buyerId);
+            if (replay != null) {
+                return replay;
+            }
+        }
+        
+        PlacementResult result;
+        try {
+            result = orderPlacementService.placeOrder(itemId, buyerId, sellerId, quantity, totalPrice, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            // 幂等键唯一约束冲突：同一键已由并发请求或更早的请求落单，本次事务已回滚
+            ResponseEntity<?> replay = idempotencyKey == null ? null
+                : replayOrder(orderService.getOrderByIdempotencyKey(idempotencyKey), buyerId);
+            if (replay != null) {
+                return replay;
+            }
+            placementErrors.increment();
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Order Create Fail"));
+        } catch (CannotCreateTransactionException e) {
+            // 数据库准入超时或连接池耗尽
+            placementErrors.increment();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ApiResponse(false, "Service Busy"));
+        } catch (Exception e) {
+            placementErrors.increment();
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Order Create Fail"));
+        }
+        placementOutcomes.get(result.getOutcome()).increment();
+        
+        switch (result.getOutcome()) {
+            case SUCCESS:
+                orderService.rememberIdempotencyKey(idempotencyKey, result.getOrder());
+                return ResponseEntity.ok(new ApiResponse(true, "Order created successfully", result.getOrder()));
+            case INSUFFICIENT_BALANCE:
+                return ResponseEntity.badRequest().body(new ApiResponse(false, "No Sufficient Balance"));
+            case OUT_OF_STOCK:
+                return ResponseEntity.badRequest().body(new ApiResponse(false, "Insufficient Stock"));
+            default:
+                return ResponseEntity.badRequest().body(new ApiResponse(false, "Order Create Fail"));
+        }
+    }
+    
+    // 批量下单：逐条返回结果与订单ID，顺序与请求一致
+    @PostMapping("/batch")
+    public ResponseEntity<?> createOrders(@RequestBody List<CreateOrderRequest> requests,
+                                          HttpServletRequest httpRequest) {
+        if (requests == null || requests.isEmpty() || requests.size() > OrderPlacementService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid batch size"));
+        }
+        // 任一条目的买家不是本人则整批拒绝；空条目照常按参数无效返回
+        for (CreateOrderRequest request : requests) {
+            if (request != null && !SessionInterceptor.isCurrentUser(httpRequest, request.getBuyerId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
         }
         
-        Order order = orderService.createOrder(itemId, buyerId, sellerId, quantity, totalPrice);
-        if (order != null) {
-            // 扣减买家余额并增加卖家余额
-            userService.deductBalance(buyerId, totalPrice);
-            userService.rechargeBalance(sellerId, totalPrice);
-            
-            logService.logOrderCreate(buyerId, order.getId());
-            
-            return ResponseEntity.ok(new ApiResponse(true, "Order created successfully", order));
+        List<PlacementRequest> placements = new ArrayList<>(requests.size());
+        for (CreateOrderRequest request : requests) {
+            placements.add(request == null ? null : new PlacementRequest(request.getItemId(), request.getBuyerId(),
+                request.getSellerId(), request.getQuantity(), request.getTotalPrice()));
+        }
+        
+        List<PlacementResult> results;
+        try {
+            results = orderPlacementService.placeOrders(placements);
+        } catch (CannotCreateTransactionException e) {
+            placementErrors.increment();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ApiResponse(false, "Service Busy"));
+        } catch (Exception e) {
+            placementErrors.increment();
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Order Create Fail"));
+        }
+        if (results == null) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Order Create Fail"));
+        }
+        
+        List<BatchOrderResult> body = new ArrayList<>(results.size());
+        for (PlacementResult result : results) {
+            placementOutcomes.get(result.getOutcome()).increment();
+            body.add(new BatchOrderResult(result.getOutcome().name(),
+                result.isSuccess() ? result.getOrder().getId() : null));
+        }
+        return ResponseEntity.ok(new ApiResponse(true, "Success", body));
+    }
+    
+    private ResponseEntity<?> replayOrder(Order existing, Long buyerId) {
+        if (existing == null) {
+            return null;
+        }
+        if (!existing.getBuyerId().equals(buyerId)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(false, "Idempotency Key Conflict"));
         }
-        return ResponseEntity.badRequest().body(new ApiResponse(false, "Order Create Fail"));
+        placementReplays.increment();
+        return ResponseEntity.ok(new ApiResponse(true, "Order created successfully", existing));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<?> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<?> getOrderById(@PathVariable Long id, HttpServletRequest httpRequest) {
         if (id == null || id <= 0) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid orderId"));
         }
@@ -72,31 +207,47 @@ public class OrderController {
         if (order == null) {
             return ResponseEntity.notFound().build();
         }
+        if (!isParty(httpRequest, order) && !SessionInterceptor.isAdmin(httpRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         return ResponseEntity.ok(new ApiResponse(true, "Success", order));
     }
     
+    // enriched=true 时附带商品名称 / 单价与买卖双方信息（一条关联查询）
     @GetMapping("/buyer/{buyerId}")
-    public ResponseEntity<?> getOrdersByBuyer(@PathVariable Long buyerId) {
+    public ResponseEntity<?> getOrdersByBuyer(@PathVariable Long buyerId,
+                                              @RequestParam(defaultValue = "false") boolean enriched,
+                                              HttpServletRequest httpRequest) {
         if (buyerId == null || buyerId <= 0) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid buyerId"));
         }
+        if (!SessionInterceptor.isCurrentUser(httpRequest, buyerId) && !SessionInterceptor.isAdmin(httpRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         
-        List<Order> orders = orderService.getOrdersByBuyer(buyerId);
+        List<? extends OrderSummary> orders = enriched
+            ? orderService.getOrderDetailsByBuyer(buyerId) : orderService.getOrdersByBuyer(buyerId);
         return ResponseEntity.ok(new ApiResponse(true, "Success", orders));
     }
     
     @GetMapping("/seller/{sellerId}")
-    public ResponseEntity<?> getOrdersBySeller(@PathVariable Long sellerId) {
+    public ResponseEntity<?> getOrdersBySeller(@PathVariable Long sellerId,
+                                               @RequestParam(defaultValue = "false") boolean enriched,
+                                               HttpServletRequest httpRequest) {
         if (sellerId == null || sellerId <= 0) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid sellerId"));
         }
+        if (!SessionInterceptor.isCurrentUser(httpRequest, sellerId) && !SessionInterceptor.isAdmin(httpRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         
-        List<Order> orders = orderService.getOrdersBySeller(sellerId);
+        List<? extends OrderSummary> orders = enriched
+            ? orderService.getOrderDetailsBySeller(sellerId) : orderService.getOrdersBySeller(sellerId);
         return ResponseEntity.ok(new ApiResponse(true, "Success", orders));
     }
     
     @PostMapping("/{id}/confirm")
-    public ResponseEntity<?> confirmOrder(@PathVariable Long id) {
+    public ResponseEntity<?> confirmOrder(@PathVariable Long id, HttpServletRequest httpRequest) {
         if (id == null || id <= 0) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "订单ID无效"));
         }
@@ -105,17 +256,19 @@ public class OrderController {
         if (order == null) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "订单不存在"));
         }
+        if (!SessionInterceptor.isCurrentUser(httpRequest, order.getSellerId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         
         boolean success = orderService.confirmOrder(id);
         if (success) {
-            logService.logOrderConfirm(order.getSellerId(), id);
             return ResponseEntity.ok(new ApiResponse(true, "订单确认成功"));
         }
         return ResponseEntity.badRequest().body(new ApiResponse(false, "订单确认失败"));
     }
     
     @PostMapping("/{id}/complete")
-    public ResponseEntity<?> completeOrder(@PathVariable Long id) {
+    public ResponseEntity<?> completeOrder(@PathVariable Long id, HttpServletRequest httpRequest) {
         if (id == null || id <= 0) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "订单ID无效"));
         }
@@ -124,17 +277,19 @@ public class OrderController {
         if (order == null) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "订单不存在"));
         }
+        if (!SessionInterceptor.isCurrentUser(httpRequest, order.getBuyerId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         
         boolean success = orderService.completeOrder(id);
         if (success) {
-            logService.logOrderComplete(order.getBuyerId(), id);
             return ResponseEntity.ok(new ApiResponse(true, "订单完成成功"));
         }
         return ResponseEntity.badRequest().body(new ApiResponse(false, "订单完成失败"));
     }
     
     @PostMapping("/{id}/cancel")
-    public ResponseEntity<?> cancelOrder(@PathVariable Long id) {
+    public ResponseEntity<?> cancelOrder(@PathVariable Long id, HttpServletRequest httpRequest) {
         if (id == null || id <= 0) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "订单ID无效"));
         }
@@ -143,52 +298,80 @@ public class OrderController {
         if (order == null) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "订单不存在"));
         }
+        if (!isParty(httpRequest, order) && !SessionInterceptor.isAdmin(httpRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         
+        // 资金回退在取消事务内完成，审计与统计由事件订阅者异步处理
         boolean success = orderService.cancelOrder(id);
         if (success) {
-            // 恢复买家余额并扣减卖家余额
-            userService.rechargeBalance(order.getBuyerId(), order.getTotalPrice());
-            userService.deductBalance(order.getSellerId(), order.getTotalPrice());
-            
-            logService.logOrderCancel(order.getBuyerId(), id);
             return ResponseEntity.ok(new ApiResponse(true, "订单取消成功"));
         }
         return ResponseEntity.badRequest().body(new ApiResponse(false, "订单取消失败"));
     }
     
     @GetMapping("/validate")
-    public ResponseEntity<?> validateOrder(@RequestParam Long itemId, @RequestParam Long buyerId) {
+    public ResponseEntity<?> validateOrder(@RequestParam Long itemId, @RequestParam Long buyerId,
+                                           HttpServletRequest httpRequest) {
         if (itemId == null || itemId <= 0 || buyerId == null || buyerId <= 0) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid arg"));
         }
+        if (!SessionInterceptor.isCurrentUser(httpRequest, buyerId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         
         // 验证商品是否存在且有库存
-        if (!itemService.isItemAvailable(itemId)) {
+        Item item = itemService.getItemById(itemId);
+        if (item == null || !item.isInStock()) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid Item"));
         }
         
         // 验证买家是否存在
-        if (userService.getUserById(buyerId) == null) {
+        User buyer = userService.getUserById(buyerId);
+        if (buyer == null) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "Buyer Not Exist"));
         }
         
         // 验证买家余额是否足够
-        Double itemPrice = itemService.getItemById(itemId).getPrice();
-        Double buyerBalance = userService.getUserById(buyerId).getBalance();
-        
-        if (buyerBalance >= itemPrice) {
+        if (buyer.getAvailableBalance() >= item.getPrice()) {
             return ResponseEntity.ok(new ApiResponse(true, "Order Success"));
         } else {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "No Sufficient Balance"));
         }
     }
     
+    // 全量列表 / 分页 / 导出仅限管理员
     @GetMapping
-    public ResponseEntity<?> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
+    public ResponseEntity<?> getAllOrders(HttpServletRequest httpRequest) {
+        if (!SessionInterceptor.isAdmin(httpRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        List<OrderSummary> orders = orderService.getAllOrders();
         return ResponseEntity.ok(new ApiResponse(true, "Success", orders));
     }
     
+    @GetMapping("/page")
+    public ResponseEntity<?> getOrdersPage(@RequestParam(required = false) Long lastId,
+                                           @RequestParam(required = false) Integer limit,
+                                           HttpServletRequest httpRequest) {
+        if (!SessionInterceptor.isAdmin(httpRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        int pageSize = PageUtil.clampPageSize(limit);
+        List<OrderSummary> orders = orderService.getOrdersAfter(lastId, pageSize);
+        Long nextCursor = orders.size() == pageSize ? orders.get(orders.size() - 1).getId() : null;
+        return ResponseEntity.ok(new ApiResponse(true, "Success", new PageResponse(orders, nextCursor)));
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(HttpServletRequest httpRequest) {
+        if (!SessionInterceptor.isAdmin(httpRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        StreamingResponseBody body = out -> orderService.exportOrders(out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
     // 请求DTO类
     public static class CreateOrderRequest {
         private Long itemId;
@@ -210,6 +393,35 @@ public class OrderController {
         public void setTotalPrice(Double totalPrice) { this.totalPrice = totalPrice; }
     }
 
+    public static class BatchOrderResult {
+        private String outcome;
+        private Long orderId;
+        
+        public BatchOrderResult(String outcome, Long orderId) {
+            this.outcome = outcome;
+            this.orderId = orderId;
+        }
+        
+        public String getOutcome() { return outcome; }
+        public Long getOrderId() { return orderId; }
+    }
+
+    public static class PageResponse {
+        private List<?> records;
+        private Long nextCursor;
+        
+        public PageResponse(List<?> records, Long nextCursor) {
+            this.records = records;
+            this.nextCursor = nextCursor;
+        }
+        
+        // getters and setters
+        public List<?> getRecords() { return records; }
+        public void setRecords(List<?> records) { this.records = records; }
+        public Long getNextCursor() { return nextCursor; }
+        public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+    }
+
     public static class ApiResponse {
         private boolean success;
         private String message;
@@ -0,0 +1,67 @@
+package com.OpenOtkPlatform.api;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import com.OpenOtkPlatform.config.SessionInterceptor;
+import com.OpenOtkPlatform.domain.ItemSalesSummary;
+import com.OpenOtkPlatform.domain.UserOrderSummary;
+import com.OpenOtkPlatform.service.SalesStatsService;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    @Autowired
+    private SalesStatsService salesStatsService;
+
+    @GetMapping("/items/{itemId}")
+    public ResponseEntity<?> getItemStats(@PathVariable Long itemId) {
+        if (itemId == null || itemId <= 0) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid itemId"));
+        }
+
+        ItemSalesSummary stats = salesStatsService.getItemStats(itemId);
+        return ResponseEntity.ok(new ApiResponse(true, "Success", stats));
+    }
+
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<?> getUserStats(@PathVariable Long userId, HttpServletRequest httpRequest) {
+        if (userId == null || userId <= 0) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid userId"));
+        }
+        if (!SessionInterceptor.isCurrentUser(httpRequest, userId) && !SessionInterceptor.isAdmin(httpRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        UserOrderSummary stats = salesStatsService.getUserStats(userId);
+        return ResponseEntity.ok(new ApiResponse(true, "Success", stats));
+    }
+
+    public static class ApiResponse {
+        private boolean success;
+        private String message;
+        private Object data;
+
+        public ApiResponse(boolean success, String message) {
+            this.success = success;
+            this.message = message;
+        }
+
+        public ApiResponse(boolean success, String message, Object data) {
+            this.success = success;
+            this.message = message;
+            this.data = data;
+        }
+
+        // getters and setters
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+        public Object getData() { return data; }
+        public void setData(Object data) { this.data = data; }
+    }
+}
@@ -1,13 +1,24 @@
 package com.OpenOtkPlatform.api;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.OpenOtkPlatform.config.SessionInterceptor;
+import com.OpenOtkPlatform.domain.MultiGetResult;
 import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.domain.UserProfile;
+import com.OpenOtkPlatform.service.EventStreamRegistry;
+import com.OpenOtkPlatform.service.SessionStore.Session;
 import com.OpenOtkPlatform.service.UserService;
 import com.OpenOtkPlatform.service.LogService;
+import com.OpenOtkPlatform.util.IdListUtil;
 import com.OpenOtkPlatform.util.ValidationUtil;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
@@ -18,13 +29,16 @@ public class UserController {
     @Autowired
     private LogService logService;
     
+    @Autowired
+    private EventStreamRegistry eventStreamRegistry;
+    
     @GetMapping("/{id}")
     public ResponseEntity<?> getUserInfo(@PathVariable Long id) {
         if (id == null || id <= 0) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid userId"));
         }
         
-        User user = userService.getUserById(id);
+        UserProfile user = userService.getUserProfile(id);
         if (user != null) {
             // TODO - finish me
             // logService.logGetUserInfo(id);
@@ -33,6 +47,33 @@ public class UserController {
         return ResponseEntity.notFound().build();
     }
     
+    // 批量查询：GET /api/users?ids=1,2,3，found 按请求顺序返回，missing 为不存在的ID
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getUsersByIds(@RequestParam List<Long> ids) {
+        List<Long> userIds = IdListUtil.normalize(ids);
+        if (userIds.isEmpty() || userIds.size() > IdListUtil.MAX_IDS) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "inValid ids"));
+        }
+        
+        MultiGetResult<UserProfile> result = userService.getUserProfilesByIds(userIds);
+        return ResponseEntity.ok(result);
+    }
+    
+    // 实时推送（SSE）：本人作为买家或卖家的订单状态变化，事件名 order；只能订阅自己
+    @GetMapping(value = "/{id}/stream", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> streamUserEvents(@PathVariable Long id, HttpServletRequest request) {
+        Session session = SessionInterceptor.currentSession(request);
+        if (id == null || session == null || !id.equals(session.getUserId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        SseEmitter emitter = eventStreamRegistry.openUserStream(id);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
     // @PutMapping("/{id}")
     // public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody UpdateUserRequest request) {
     //     String email = request.getEmail();
@@ -0,0 +1,159 @@
+package com.OpenOtkPlatform.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 数据库准入控制 - 获取连接前先取得许可，连接关闭时归还
+ * 虚拟线程下大量请求在公平信号量上等待（不占用平台线程），超时快速失败，
+ * 而不是在连接池内排队直到 connection-timeout
+ * 已持有许可的线程再取连接（如号段表主键分配开启的独立事务）不再排队：否则持锁事务会等待
+ * 被它阻塞的其他事务归还许可，形成死锁。因此许可数应略小于连接池大小，为嵌套连接预留余量
+ */
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long timeoutMillis;
+    private final LongAdder rejectedCount = new LongAdder();
+    // 当前线程通过本数据源持有的许可数
+    private final ThreadLocal<AtomicInteger> heldByThread = ThreadLocal.withInitial(AtomicInteger::new);
+
+    public AdmissionControlledDataSource(DataSource target, int maxPermits, long timeoutMillis) {
+        super(target);
+        this.permits = new Semaphore(maxPermits, true);
+        this.maxPermits = maxPermits;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        AtomicInteger held = acquire();
+        try {
+            return guard(super.getConnection(), held);
+        } catch (SQLException | RuntimeException e) {
+            release(held);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        AtomicInteger held = acquire();
+        try {
+            return guard(super.getConnection(username, password), held);
+        } catch (SQLException | RuntimeException e) {
+            release(held);
+            throw e;
+        }
+    }
+
+    public int getMaxPermits() {
+        return maxPermits;
+    }
+
+    public int getInUse() {
+        return maxPermits - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 取得许可并返回当前线程的持有计数；线程已持有许可时直接放行，返回 null
+     */
+    private AtomicInteger acquire() throws SQLException {
+        AtomicInteger held = heldByThread.get();
+        if (held.get() > 0) {
+            return null;
+        }
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejectedCount.increment();
+                throw new SQLTransientConnectionException(
+                    "DB admission timed out after " + timeoutMillis + "ms (" + maxPermits + " permits in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for DB admission", e);
+        }
+        held.incrementAndGet();
+        return held;
+    }
+
+    private void release(AtomicInteger held) {
+        if (held != null) {
+            held.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private Connection guard(Connection connection, AtomicInteger held) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, new ReleasingHandler(connection, held));
+    }
+
+    /**
+     * 连接代理：close() 时归还许可，只归还一次；嵌套连接（held 为空）不占许可
+     */
+    private class ReleasingHandler implements InvocationHandler {
+        private final Connection target;
+        private final AtomicInteger held;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingHandler(Connection target, AtomicInteger held) {
+            this.target = target;
+            this.held = held;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                try {
+                    target.close();
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        release(held);
+                    }
+                }
+                return null;
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("unwrap".equals(name) && ((Class<?>) args[0]).isInstance(proxy)) {
+                return proxy;
+            }
+            if ("isWrapperFor".equals(name) && ((Class<?>) args[0]).isInstance(proxy)) {
+                return true;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
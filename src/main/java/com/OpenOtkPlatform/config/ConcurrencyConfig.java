@@ -0,0 +1,33 @@
+package com.OpenOtkPlatform.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * 并发配置 - 虚拟线程模式由 spring.threads.virtual.enabled 控制（Tomcat 请求线程与异步任务）
+ * 此处为数据源挂上准入控制，许可数默认比连接池少 2，预留给嵌套连接（号段表主键分配）
+ */
+@Configuration
+public class ConcurrencyConfig {
+
+    @Bean
+    public static BeanPostProcessor dbAdmissionPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof AdmissionControlledDataSource
+                    || !environment.getProperty("db.admission.enabled", Boolean.class, true)) {
+                    return bean;
+                }
+                int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                int permits = environment.getProperty("db.admission.permits", Integer.class, Math.max(1, poolSize - 2));
+                long timeoutMillis = environment.getProperty("db.admission.timeout-ms", Long.class, 5000L);
+                return new AdmissionControlledDataSource((DataSource) bean, permits, timeoutMillis);
+            }
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package com.OpenOtkPlatform.config;
+
+import com.OpenOtkPlatform.service.AuditLogWriter;
+import com.OpenOtkPlatform.service.BalanceLedger;
+import com.OpenOtkPlatform.service.CatalogResponseCache;
+import com.OpenOtkPlatform.service.DomainEventBus;
+import com.OpenOtkPlatform.service.EventStreamRegistry;
+import com.OpenOtkPlatform.service.ItemCache;
+import com.OpenOtkPlatform.service.ItemSearchIndex;
+import com.OpenOtkPlatform.service.MetricsRegistry;
+import com.OpenOtkPlatform.service.PasswordHasher;
+import com.OpenOtkPlatform.service.SessionStore;
+import com.OpenOtkPlatform.service.StockReservationService;
+import com.OpenOtkPlatform.util.Logger;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * 指标配置 - 注册控制器拦截器、仓库调用监听器以及各组件的仪表
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private DomainEventBus eventBus;
+
+    @Autowired
+    private EventStreamRegistry eventStreamRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestMetricsInterceptor(metricsRegistry)).addPathPatterns("/api/**");
+    }
+
+    /**
+     * 仓库工厂在容器早期创建，这里用 BeanPostProcessor 挂上监听器，注册表延迟获取
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MetricsRegistry> metricsRegistry) {
+        RepositoryMetricsListener listener = new RepositoryMetricsListener(metricsRegistry);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(listener));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @PostConstruct
+    public void registerGauges() {
+        metricsRegistry.gauge("otk_audit_log_queue_depth", "Audit log entries waiting to be written", "",
+            auditLogWriter::getQueueDepth);
+        metricsRegistry.counter("otk_audit_log_written_total", "Audit log entries written", "",
+            auditLogWriter::getWrittenCount);
+        metricsRegistry.counter("otk_audit_log_dropped_total", "Audit log entries dropped on overflow", "",
+            auditLogWriter::getDroppedCount);
+        metricsRegistry.counter("otk_audit_log_spilled_total", "Audit log entries spilled to file", "",
+            auditLogWriter::getSpilledCount);
+
+        metricsRegistry.counter("otk_item_cache_hits_total", "Item cache hits", MetricsRegistry.labels("cache", "items"),
+            () -> itemCache.itemStats().hitCount());
+        metricsRegistry.counter("otk_item_cache_misses_total", "Item cache misses", MetricsRegistry.labels("cache", "items"),
+            () -> itemCache.itemStats().missCount());
+        metricsRegistry.counter("otk_item_cache_evictions_total", "Item cache evictions", MetricsRegistry.labels("cache", "items"),
+            () -> itemCache.itemStats().evictionCount());
+        metricsRegistry.counter("otk_item_cache_hits_total", "Item cache hits", MetricsRegistry.labels("cache", "lists"),
+            () -> itemCache.listStats().hitCount());
+        metricsRegistry.counter("otk_item_cache_misses_total", "Item cache misses", MetricsRegistry.labels("cache", "lists"),
+            () -> itemCache.listStats().missCount());
+        metricsRegistry.counter("otk_item_cache_evictions_total", "Item cache evictions", MetricsRegistry.labels("cache", "lists"),
+            () -> itemCache.listStats().evictionCount());
+        metricsRegistry.gauge("otk_item_cache_size", "Cached items", "", itemCache::itemCount);
+
+        metricsRegistry.counter("otk_item_cache_hits_total", "Item cache hits", MetricsRegistry.labels("cache", "responses"),
+            () -> catalogResponseCache.stats().hitCount());
+        metricsRegistry.counter("otk_item_cache_misses_total", "Item cache misses", MetricsRegistry.labels("cache", "responses"),
+            () -> catalogResponseCache.stats().missCount());
+        metricsRegistry.counter("otk_catalog_not_modified_total", "Catalog requests answered with 304", "",
+            catalogResponseCache::getNotModifiedCount);
+        metricsRegistry.gauge("otk_catalog_response_cache_size", "Cached catalog responses", "",
+            catalogResponseCache::size);
+
+        if (dataSource instanceof AdmissionControlledDataSource admission) {
+            metricsRegistry.gauge("otk_db_admission_permits", "DB admission permits", "", admission::getMaxPermits);
+            metricsRegistry.gauge("otk_db_admission_in_use", "DB admission permits in use", "", admission::getInUse);
+            metricsRegistry.gauge("otk_db_admission_waiting", "Threads waiting for DB admission", "", admission::getWaiting);
+            metricsRegistry.counter("otk_db_admission_rejected_total", "DB admission timeouts", "",
+                admission::getRejectedCount);
+        }
+
+        metricsRegistry.gauge("otk_balance_ledger_pending", "Balance credits waiting to be applied", "",
+            balanceLedger::getPendingEntryCount);
+        metricsRegistry.counter("otk_balance_ledger_applied_total", "Balance credits applied to users", "",
+            balanceLedger::getAppliedCount);
+
+        metricsRegistry.gauge("otk_stock_reservations_open", "Pending orders holding stock until their deadline", "",
+            stockReservationService::getOpenCount);
+        metricsRegistry.counter("otk_stock_reservations_expired_total", "Pending orders cancelled at their deadline", "",
+            stockReservationService::getExpiredCount);
+
+        metricsRegistry.counter("otk_event_bus_published_total", "Domain events published", "",
+            eventBus::getPublishedCount);
+        metricsRegistry.counter("otk_event_bus_full_waits_total", "Publisher waits on a full event ring buffer", "",
+            eventBus::getFullWaitCount);
+        for (String subscriber : DomainEventBus.SUBSCRIBERS) {
+            String labels = MetricsRegistry.labels("subscriber", subscriber);
+            metricsRegistry.gauge("otk_event_bus_lag", "Events published but not yet handled by the subscriber", labels,
+                () -> eventBus.getLag(subscriber));
+            metricsRegistry.counter("otk_event_bus_consumed_total", "Events handled by the subscriber", labels,
+                () -> eventBus.getConsumedCount(subscriber));
+            metricsRegistry.counter("otk_event_bus_batches_total", "Event batches handled by the subscriber", labels,
+                () -> eventBus.getBatchCount(subscriber));
+            metricsRegistry.counter("otk_event_bus_failed_total", "Events in batches the subscriber failed on", labels,
+                () -> eventBus.getFailedCount(subscriber));
+        }
+
+        metricsRegistry.gauge("otk_stream_clients", "Open server-sent event connections", "",
+            eventStreamRegistry::getClientCount);
+        metricsRegistry.counter("otk_stream_events_sent_total", "Events written to server-sent event connections", "",
+            eventStreamRegistry::getSentCount);
+        metricsRegistry.counter("otk_stream_clients_dropped_total", "Connections closed because their buffer was full", "",
+            eventStreamRegistry::getOverflowCount);
+
+        metricsRegistry.gauge("otk_sessions_active", "Active login sessions", "", sessionStore::size);
+        metricsRegistry.counter("otk_session_rejected_total", "Requests with an unknown or expired session token", "",
+            sessionStore::getRejectedCount);
+
+        metricsRegistry.gauge("otk_password_hash_queue_depth", "Password hashes waiting for a hasher thread", "",
+            passwordHasher::getQueueDepth);
+        metricsRegistry.gauge("otk_password_hash_active", "Password hashes in progress", "",
+            passwordHasher::getActiveCount);
+        metricsRegistry.counter("otk_password_hash_total", "Password hashes and verifications completed", "",
+            passwordHasher::getHashCount);
+        metricsRegistry.counter("otk_password_hash_rejected_total", "Password hashes rejected by admission control", "",
+            passwordHasher::getRejectedCount);
+
+        metricsRegistry.gauge("otk_item_search_index_size", "Items in the search index", "", itemSearchIndex::size);
+        metricsRegistry.gauge("otk_logger_dropped", "Logger messages dropped since last drain", "",
+            () -> Logger.getInstance().getDroppedCount());
+    }
+}
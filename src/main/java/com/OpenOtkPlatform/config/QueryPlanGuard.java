@@ -0,0 +1,141 @@
+package com.OpenOtkPlatform.config;
+
+import com.OpenOtkPlatform.repository.OrderRepository;
+import com.OpenOtkPlatform.repository.SystemLogRepository;
+import com.OpenOtkPlatform.util.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 执行计划守卫 - 启动后对按用户查询订单 / 日志的仓库查询执行 EXPLAIN，
+ * 出现全表扫描或未走预期的组合索引时启动失败（可配置为只告警），防止索引或查询改动后计划退化
+ * 语句不手抄：调用仓库方法，由 SqlCaptureInspector 取得 Hibernate 实际生成的 SQL，再按示例参数绑定后 EXPLAIN
+ */
+@Component
+public class QueryPlanGuard {
+
+    private static final Set<String> BUYER_KEYS = Set.of("idx_buyer_id", "idx_buyer_status_time");
+    private static final Set<String> SELLER_KEYS = Set.of("idx_seller_id", "idx_seller_status_time");
+
+    @Value("${schema.explain-guard.enabled:true}")
+    private boolean enabled;
+
+    @Value("${schema.explain-guard.fail-on-regression:true}")
+    private boolean failOnRegression;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private SystemLogRepository systemLogRepository;
+
+    private final Logger logger = Logger.getInstance();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!enabled || !isMySql()) {
+            return;
+        }
+        List<String> regressions = check();
+        if (regressions.isEmpty()) {
+            logger.info("QueryPlanGuard: " + guardedQueries().size() + " query plans ok");
+            return;
+        }
+        for (String regression : regressions) {
+            logger.warn("QueryPlanGuard: " + regression);
+        }
+        if (failOnRegression) {
+            throw new IllegalStateException("QueryPlanGuard: " + regressions.size() + " query plan regression(s)");
+        }
+    }
+
+    /**
+     * 返回退化的计划描述，空列表表示全部符合预期
+     * 仓库查询的参数个数与示例参数不一致也算退化（查询改了而守卫没跟上）；非 MySQL 只做这一项检查
+     * 第一行是驱动表（orders / system_logs），必须走预期索引；其余连接表不得全表 / 全索引扫描
+     */
+    public List<String> check() {
+        boolean mySql = isMySql();
+        List<String> regressions = new ArrayList<>();
+        for (GuardedQuery query : guardedQueries()) {
+            List<String> statements = SqlCaptureInspector.capture(query.invocation);
+            if (statements.size() != 1) {
+                regressions.add(query.name + ": expected one statement, repository issued " + statements.size());
+                continue;
+            }
+            String sql = statements.get(0);
+            long placeholders = sql.chars().filter(c -> c == '?').count();
+            if (placeholders != query.args.length) {
+                regressions.add(query.name + ": " + placeholders + " parameters, guard binds " + query.args.length);
+                continue;
+            }
+            if (!mySql) {
+                continue;
+            }
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList("EXPLAIN " + sql, query.args);
+            for (int i = 0; i < rows.size(); i++) {
+                Object table = rows.get(i).get("table");
+                Object type = rows.get(i).get("type");
+                Object key = rows.get(i).get("key");
+                if (key == null || "ALL".equals(type) || "index".equals(type)) {
+                    regressions.add(query.name + ": full scan of " + table + " (type=" + type + ")");
+                } else if (i == 0 && !query.expectedKeys.contains(key.toString())) {
+                    regressions.add(query.name + ": " + table + " uses " + key + ", expected one of " + query.expectedKeys);
+                }
+            }
+        }
+        return regressions;
+    }
+
+    private boolean isMySql() {
+        String product = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return product != null && product.toLowerCase().contains("mysql");
+    }
+
+    /**
+     * 受检查询：OrderService / LogService 按用户查询时实际调用的仓库方法，args 按生成 SQL 中占位符的出现顺序给出
+     */
+    private List<GuardedQuery> guardedQueries() {
+        return List.of(
+            new GuardedQuery("order summaries by buyer",
+                () -> orderRepository.findSummariesByBuyerId(0L), BUYER_KEYS, 0L),
+            new GuardedQuery("order summaries by seller",
+                () -> orderRepository.findSummariesBySellerId(0L), SELLER_KEYS, 0L),
+            new GuardedQuery("order details by buyer",
+                () -> orderRepository.findDetailsByBuyerId(0L), BUYER_KEYS, 0L),
+            new GuardedQuery("order details by seller",
+                () -> orderRepository.findDetailsBySellerId(0L), SELLER_KEYS, 0L),
+            new GuardedQuery("logs by user",
+                () -> systemLogRepository.findByUserId(0L),
+                Set.of("idx_user_id", "idx_user_operation_time"), 0L)
+        );
+    }
+
+    private static final class GuardedQuery {
+        final String name;
+        final Runnable invocation;
+        final Set<String> expectedKeys;
+        final Object[] args;
+
+        GuardedQuery(String name, Runnable invocation, Set<String> expectedKeys, Object... args) {
+            this.name = name;
+            this.invocation = invocation;
+            this.expectedKeys = expectedKeys;
+            this.args = args;
+        }
+    }
+}
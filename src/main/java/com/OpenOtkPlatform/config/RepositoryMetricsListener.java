@@ -0,0 +1,37 @@
+package com.OpenOtkPlatform.config;
+
+import com.OpenOtkPlatform.service.MetricsRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 仓库方法调用监听 - 记录每个仓库方法的耗时（即数据库时间），并计入当前请求的仓库调用次数
+ */
+public class RepositoryMetricsListener implements RepositoryMethodInvocationListener {
+
+    private final ObjectProvider<MetricsRegistry> metricsRegistry;
+    private final ConcurrentMap<Method, MetricsRegistry.Summary> timers = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsListener(ObjectProvider<MetricsRegistry> metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        RequestMetricsInterceptor.onRepositoryCall();
+        Method method = invocation.getMethod();
+        MetricsRegistry.Summary timer = timers.get(method);
+        if (timer == null) {
+            String repository = invocation.getRepositoryInterface().getSimpleName();
+            timer = timers.computeIfAbsent(method, k -> metricsRegistry.getObject().latency(
+                "otk_repository_call_seconds", "Repository method latency",
+                MetricsRegistry.labels("repository", repository, "method", method.getName())));
+        }
+        timer.record(invocation.getDuration(TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,107 @@
+package com.OpenOtkPlatform.config;
+
+import com.OpenOtkPlatform.service.MetricsRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 控制器方法级指标 - 按处理方法与状态码类别记录延迟，并统计单次请求内的仓库调用次数
+ * 计时状态保存在线程本地对象中；流式导出等异步请求不计入
+ */
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final long MAX_REPOSITORY_CALLS = 10_000;
+    private static final ThreadLocal<RequestState> STATE = ThreadLocal.withInitial(RequestState::new);
+
+    private final MetricsRegistry metricsRegistry;
+    private final ConcurrentMap<Method, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    public RequestMetricsInterceptor(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    /**
+     * 由仓库调用监听器回调，仅在请求线程内计数
+     */
+    static void onRepositoryCall() {
+        RequestState state = STATE.get();
+        if (state.active) {
+            state.repositoryCalls++;
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.REQUEST && handler instanceof HandlerMethod) {
+            RequestState state = STATE.get();
+            state.active = true;
+            state.repositoryCalls = 0;
+            state.startNanos = System.nanoTime();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        STATE.get().active = false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestState state = STATE.get();
+        if (!state.active || !(handler instanceof HandlerMethod)) {
+            return;
+        }
+        state.active = false;
+        long elapsed = System.nanoTime() - state.startNanos;
+        EndpointMetrics metrics = endpointMetrics((HandlerMethod) handler);
+        int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+        metrics.latency(Math.min(Math.max(status / 100, 1), 5)).record(elapsed);
+        metrics.repositoryCalls.record(state.repositoryCalls);
+    }
+
+    private EndpointMetrics endpointMetrics(HandlerMethod handlerMethod) {
+        EndpointMetrics metrics = endpoints.get(handlerMethod.getMethod());
+        if (metrics == null) {
+            String name = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+            metrics = endpoints.computeIfAbsent(handlerMethod.getMethod(), k -> new EndpointMetrics(name));
+        }
+        return metrics;
+    }
+
+    private static final class RequestState {
+        private boolean active;
+        private long startNanos;
+        private int repositoryCalls;
+    }
+
+    private final class EndpointMetrics {
+        private final String handler;
+        // 下标为状态码百位数 1..5，首次出现时创建；并发创建由注册表去重
+        private final MetricsRegistry.Summary[] latency = new MetricsRegistry.Summary[6];
+        private final MetricsRegistry.Summary repositoryCalls;
+
+        private EndpointMetrics(String handler) {
+            this.handler = handler;
+            this.repositoryCalls = metricsRegistry.distribution("otk_http_request_repository_calls",
+                "Repository calls per request", MetricsRegistry.labels("handler", handler), MAX_REPOSITORY_CALLS);
+        }
+
+        private MetricsRegistry.Summary latency(int statusClass) {
+            MetricsRegistry.Summary summary = latency[statusClass];
+            if (summary == null) {
+                summary = metricsRegistry.latency("otk_http_request_seconds", "Controller method latency",
+                    MetricsRegistry.labels("handler", handler, "status", statusClass + "xx"));
+                latency[statusClass] = summary;
+            }
+            return summary;
+        }
+    }
+}
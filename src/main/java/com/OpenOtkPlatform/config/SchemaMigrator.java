@@ -0,0 +1,140 @@
+package com.OpenOtkPlatform.config;
+
+import com.OpenOtkPlatform.util.Logger;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * 版本化数据库迁移 - 按版本号顺序执行 V{版本}__{说明}.sql，已执行的版本记录在 schema_version 表
+ * 已执行脚本的语句被修改时拒绝启动（整行注释不计入校验和）；checksum 为空的记录视为由 init.sql 建库时登记，不做校验
+ * 迁移不加分布式锁，多实例部署时应先由单个实例完成迁移
+ */
+public class SchemaMigrator {
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private static final String CREATE_VERSION_TABLE =
+        "CREATE TABLE IF NOT EXISTS schema_version ("
+            + "version INT PRIMARY KEY, "
+            + "description VARCHAR(200) NOT NULL, "
+            + "checksum BIGINT, "
+            + "installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    private final DataSource dataSource;
+    private final String location;
+    private final Logger logger = Logger.getInstance();
+
+    public SchemaMigrator(DataSource dataSource, String location) {
+        this.dataSource = dataSource;
+        this.location = location;
+    }
+
+    public int migrate() throws IOException {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(CREATE_VERSION_TABLE);
+
+        Map<Integer, Long> applied = new HashMap<>();
+        jdbcTemplate.query("SELECT version, checksum FROM schema_version", rs -> {
+            long checksum = rs.getLong("checksum");
+            applied.put(rs.getInt("version"), rs.wasNull() ? null : checksum);
+        });
+
+        int executed = 0;
+        for (Migration migration : findMigrations()) {
+            if (applied.containsKey(migration.version)) {
+                Long recorded = applied.get(migration.version);
+                if (recorded != null && recorded != migration.checksum) {
+                    throw new IllegalStateException("SchemaMigrator: checksum mismatch for applied migration V"
+                        + migration.version + " (" + migration.resource.getFilename() + ")");
+                }
+                continue;
+            }
+
+            logger.info("SchemaMigrator: applying V" + migration.version + " " + migration.description);
+            // MySQL 的 DDL 会隐式提交，脚本中途失败需人工处理后再启动
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.resource, StandardCharsets.UTF_8));
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+            jdbcTemplate.update("INSERT INTO schema_version (version, description, checksum) VALUES (?, ?, ?)",
+                migration.version, migration.description, migration.checksum);
+            executed++;
+        }
+        if (executed > 0) {
+            logger.info("SchemaMigrator: " + executed + " migration(s) applied");
+        }
+        return executed;
+    }
+
+    private List<Migration> findMigrations() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location + "/V*__*.sql");
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource resource : resources) {
+            Matcher matcher = FILE_NAME.matcher(resource.getFilename());
+            if (!matcher.matches()) {
+                continue;
+            }
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)),
+                matcher.group(2).replace('_', ' '), resource, checksum(resource)));
+        }
+        migrations.sort(Comparator.comparingInt(m -> m.version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version == migrations.get(i - 1).version) {
+                throw new IllegalStateException("SchemaMigrator: duplicate migration version V"
+                    + migrations.get(i).version);
+            }
+        }
+        return migrations;
+    }
+
+    // 忽略换行符差异与整行注释：CRLF / LF 检出的同一脚本校验和一致，修正注释不影响已执行的库
+    private static long checksum(Resource resource) throws IOException {
+        String content;
+        try (InputStream in = resource.getInputStream()) {
+            content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        CRC32 crc = new CRC32();
+        for (String line : content.split("\r?\n")) {
+            if (line.trim().startsWith("--")) {
+                continue;
+            }
+            crc.update(line.getBytes(StandardCharsets.UTF_8));
+            crc.update('\n');
+        }
+        return crc.getValue();
+    }
+
+    private static final class Migration {
+        final int version;
+        final String description;
+        final Resource resource;
+        final long checksum;
+
+        Migration(int version, String description, Resource resource, long checksum) {
+            this.version = version;
+            this.description = description;
+            this.resource = resource;
+            this.checksum = checksum;
+        }
+    }
+}
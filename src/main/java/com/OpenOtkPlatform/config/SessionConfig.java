@@ -0,0 +1,35 @@
+package com.OpenOtkPlatform.config;
+
+import com.OpenOtkPlatform.service.SessionStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Set;
+
+/**
+ * 会话配置 - 在所有 /api 控制器前挂上会话校验
+ * session.enforce=false 时只解析令牌不拦截，便于前端未升级时过渡
+ */
+@Configuration
+public class SessionConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Value("${session.enforce:true}")
+    private boolean enforce;
+
+    // 管理员用户ID（逗号分隔），可访问全量订单 / 日志列表与导出
+    @Value("${session.admin-user-ids:}")
+    private Set<Long> adminUserIds;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SessionInterceptor(sessionStore, enforce, adminUserIds))
+            .addPathPatterns("/api/**")
+            .excludePathPatterns("/api/auth/login", "/api/auth/register", "/api/metrics/**");
+    }
+}
@@ -0,0 +1,98 @@
+package com.OpenOtkPlatform.config;
+
+import com.OpenOtkPlatform.service.SessionStore;
+import com.OpenOtkPlatform.service.SessionStore.Session;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 会话校验拦截器 - 校验 Authorization: Bearer 令牌，通过后把会话放到请求属性上，失败返回 401
+ * 登录 / 注册、指标以及商品目录的 GET 请求无需登录（排除规则见 SessionConfig 与 PUBLIC_GET_PREFIXES）
+ * 会话用户在 session.admin-user-ids 中时另外标记为管理员，供全量列表 / 导出等接口校验
+ */
+public class SessionInterceptor implements HandlerInterceptor {
+
+    public static final String SESSION_ATTRIBUTE = SessionInterceptor.class.getName() + ".session";
+    public static final String ADMIN_ATTRIBUTE = SessionInterceptor.class.getName() + ".admin";
+
+    private static final List<String> PUBLIC_GET_PREFIXES = List.of("/api/items");
+
+    private static final byte[] UNAUTHORIZED_BODY =
+        "{\"success\":false,\"message\":\"Unauthorized\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final SessionStore sessionStore;
+    private final boolean enforce;
+    private final Set<Long> adminUserIds;
+
+    public SessionInterceptor(SessionStore sessionStore, boolean enforce, Set<Long> adminUserIds) {
+        this.sessionStore = sessionStore;
+        this.enforce = enforce;
+        this.adminUserIds = adminUserIds;
+    }
+
+    /**
+     * 当前请求的会话，未登录或该路径无需登录时可能为 null
+     */
+    public static Session currentSession(HttpServletRequest request) {
+        return (Session) request.getAttribute(SESSION_ATTRIBUTE);
+    }
+
+    /**
+     * 当前会话是否属于 userId；未登录时为 false
+     */
+    public static boolean isCurrentUser(HttpServletRequest request, Long userId) {
+        Session session = currentSession(request);
+        return userId != null && session != null && userId.equals(session.getUserId());
+    }
+
+    public static boolean isAdmin(HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(ADMIN_ATTRIBUTE));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+        throws IOException {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+        String token = SessionStore.bearerToken(request.getHeader(HttpHeaders.AUTHORIZATION));
+        Session session = token == null ? null : sessionStore.validate(token);
+        if (session != null) {
+            request.setAttribute(SESSION_ATTRIBUTE, session);
+            if (adminUserIds.contains(session.getUserId())) {
+                request.setAttribute(ADMIN_ATTRIBUTE, Boolean.TRUE);
+            }
+            return true;
+        }
+        if (!enforce || isPublic(request)) {
+            return true;
+        }
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(UNAUTHORIZED_BODY);
+        return false;
+    }
+
+    private static boolean isPublic(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String prefix : PUBLIC_GET_PREFIXES) {
+            if (path.equals(prefix) || path.startsWith(prefix + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+package com.OpenOtkPlatform.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL 捕获 - 在 capture 期间记录当前线程上 Hibernate 实际生成的语句，供 QueryPlanGuard 对仓库查询执行 EXPLAIN
+ * 未在捕获时只多一次 ThreadLocal 读取，语句原样放行
+ */
+public class SqlCaptureInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    /**
+     * 执行 action 并返回期间生成的全部语句（按执行顺序）
+     */
+    public static List<String> capture(Runnable action) {
+        List<String> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            action.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = CAPTURED.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,143 @@
+package com.OpenOtkPlatform.domain;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+@Entity
+@Table(name = "balance_journal")
+public class BalanceEntry {
+    public static final String TYPE_CREDIT = "CREDIT";
+    public static final String TYPE_DEBIT = "DEBIT";
+
+    public static final String REASON_ORDER = "ORDER";
+    public static final String REASON_RECHARGE = "RECHARGE";
+    public static final String REASON_DEDUCT = "DEDUCT";
+    public static final String REASON_ORDER_EXPIRED = "ORDER_EXPIRED";
+    public static final String REASON_ORDER_CANCELLED = "ORDER_CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "balance_journal_id")
+    @TableGenerator(name = "balance_journal_id", table = "id_generator", pkColumnName = "name",
+                    valueColumnName = "next_val", pkColumnValue = "balance_journal", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "entry_type", nullable = false, length = 10)
+    private String entryType;
+
+    @Column(nullable = false, columnDefinition = "DECIMAL(12,2)")
+    private Double amount;
+
+    @Column(nullable = false, length = 20)
+    private String reason;
+
+    @Column(name = "ref_id")
+    private Long refId;
+
+    // 是否已合并进 users.balance；借记在写入时即已扣减，恒为 true
+    @Column(nullable = false)
+    private Boolean applied;
+
+    @Column(name = "create_time", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createTime;
+
+    public BalanceEntry() {
+        this.applied = false;
+        this.createTime = new Date();
+    }
+
+    public BalanceEntry(Long userId, String entryType, Double amount, String reason, Long refId) {
+        this();
+        this.userId = userId;
+        this.entryType = entryType;
+        this.amount = amount;
+        this.reason = reason;
+        this.refId = refId;
+        this.applied = TYPE_DEBIT.equals(entryType);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getEntryType() {
+        return entryType;
+    }
+
+    public void setEntryType(String entryType) {
+        this.entryType = entryType;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public Long getRefId() {
+        return refId;
+    }
+
+    public void setRefId(Long refId) {
+        this.refId = refId;
+    }
+
+    public Boolean getApplied() {
+        return applied;
+    }
+
+    public void setApplied(Boolean applied) {
+        this.applied = applied;
+    }
+
+    public Date getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Date createTime) {
+        this.createTime = createTime;
+    }
+
+    public boolean isCredit() {
+        return TYPE_CREDIT.equals(entryType);
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceEntry{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", entryType='" + entryType + '\'' +
+                ", amount=" + amount +
+                ", reason='" + reason + '\'' +
+                ", refId=" + refId +
+                ", applied=" + applied +
+                ", createTime=" + createTime +
+                '}';
+    }
+}
@@ -0,0 +1,17 @@
+package com.OpenOtkPlatform.domain;
+
+/**
+ * 领域事件基类 - 事务提交后发布到 DomainEventBus，由审计、统计、缓存等订阅者异步处理
+ * 事件不可变，字段为提交时的快照，订阅者不需要再回查数据库
+ */
+public abstract class DomainEvent {
+    private final long timestamp;
+
+    protected DomainEvent() {
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -6,10 +6,18 @@ import java.util.Date;
 @Entity
 @Table(name = "items")
 public class Item {
+    // 号段表分配主键（每次取 50 个），IDENTITY 会让 Hibernate 放弃 JDBC 批量插入
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "item_id")
+    @TableGenerator(name = "item_id", table = "id_generator", pkColumnName = "name",
+                    valueColumnName = "next_val", pkColumnValue = "items", allocationSize = 50)
     private Long id;
     
+    // 乐观锁版本号；ItemRepository 中的批量 UPDATE 语句同步自增
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long version;
+    
     @Column(nullable = false, length = 100)
     private String name;
     
@@ -55,6 +63,20 @@ public class Item {
         this.updateTime = new Date();
     }
     
+    // 复制构造（含版本号），供缓存返回独立副本
+    public Item(Item source) {
+        this.id = source.id;
+        this.version = source.version;
+        this.name = source.name;
+        this.description = source.description;
+        this.price = source.price;
+        this.sellerId = source.sellerId;
+        this.stock = source.stock;
+        this.available = source.available;
+        this.createTime = source.createTime;
+        this.updateTime = source.updateTime;
+    }
+    
     public Long getId() {
         return id;
     }
@@ -63,6 +85,10 @@ public class Item {
         this.id = id;
     }
     
+    public long getVersion() {
+        return version;
+    }
+    
     public String getName() {
         return name;
     }
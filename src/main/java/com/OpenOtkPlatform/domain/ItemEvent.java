@@ -0,0 +1,40 @@
+package com.OpenOtkPlatform.domain;
+
+/**
+ * 商品事件 - 上架、修改、删除与库存变化；sellerId 在库存变化事件中可能为 null
+ */
+public class ItemEvent extends DomainEvent {
+
+    public enum Type {
+        PUBLISHED,
+        UPDATED,
+        DELETED,
+        STOCK_CHANGED
+    }
+
+    private final Type type;
+    private final Long itemId;
+    private final Long sellerId;
+
+    public ItemEvent(Type type, Long itemId, Long sellerId) {
+        this.type = type;
+        this.itemId = itemId;
+        this.sellerId = sellerId;
+    }
+
+    public static ItemEvent stockChanged(Long itemId) {
+        return new ItemEvent(Type.STOCK_CHANGED, itemId, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+}
@@ -0,0 +1,88 @@
+package com.OpenOtkPlatform.domain;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+@Entity
+@Table(name = "item_sales_summary")
+public class ItemSalesSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "total_orders", nullable = false)
+    private Long totalOrders;
+
+    @Column(name = "completed_orders", nullable = false)
+    private Long completedOrders;
+
+    @Column(name = "total_revenue", nullable = false, columnDefinition = "DECIMAL(14,2)")
+    private Double totalRevenue;
+
+    @Column(name = "update_time", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updateTime;
+
+    public ItemSalesSummary() {
+        this.totalOrders = 0L;
+        this.completedOrders = 0L;
+        this.totalRevenue = 0.0;
+        this.updateTime = new Date();
+    }
+
+    public ItemSalesSummary(Long itemId) {
+        this();
+        this.itemId = itemId;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public Long getTotalOrders() {
+        return totalOrders;
+    }
+
+    public void setTotalOrders(Long totalOrders) {
+        this.totalOrders = totalOrders;
+    }
+
+    public Long getCompletedOrders() {
+        return completedOrders;
+    }
+
+    public void setCompletedOrders(Long completedOrders) {
+        this.completedOrders = completedOrders;
+    }
+
+    public Double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public void setTotalRevenue(Double totalRevenue) {
+        this.totalRevenue = totalRevenue;
+    }
+
+    public Date getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(Date updateTime) {
+        this.updateTime = updateTime;
+    }
+
+    @Override
+    public String toString() {
+        return "ItemSalesSummary{" +
+                "itemId=" + itemId +
+                ", totalOrders=" + totalOrders +
+                ", completedOrders=" + completedOrders +
+                ", totalRevenue=" + totalRevenue +
+                ", updateTime=" + updateTime +
+                '}';
+    }
+}
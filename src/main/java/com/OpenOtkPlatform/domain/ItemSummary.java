@@ -0,0 +1,64 @@
+package com.OpenOtkPlatform.domain;
+
+import java.util.Date;
+
+/**
+ * 商品列表视图 - 只查询列表需要的列，description 只取前 PREVIEW_LENGTH 个字符作摘要
+ * 完整描述通过 GET /api/items/{id} 获取
+ */
+public class ItemSummary {
+    public static final int PREVIEW_LENGTH = 120;
+
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final Double price;
+    private final Long sellerId;
+    private final Integer stock;
+    private final Boolean available;
+    private final Date createTime;
+
+    public ItemSummary(Long id, String name, String description, Double price, Long sellerId,
+                       Integer stock, Boolean available, Date createTime) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.sellerId = sellerId;
+        this.stock = stock;
+        this.available = available;
+        this.createTime = createTime;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public Date getCreateTime() {
+        return createTime;
+    }
+}
@@ -0,0 +1,43 @@
+package com.OpenOtkPlatform.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量按ID查询的结果 - found 按请求顺序排列（重复ID只返回一次），missing 为不存在的ID
+ */
+public class MultiGetResult<T> {
+    private final List<T> found;
+    private final List<Long> missing;
+
+    public MultiGetResult(List<T> found, List<Long> missing) {
+        this.found = found;
+        this.missing = missing;
+    }
+
+    /**
+     * 按 ids 的顺序从 loaded 中取值，取不到的记入 missing
+     */
+    public static <T> MultiGetResult<T> of(List<Long> ids, Map<Long, T> loaded) {
+        List<T> found = new ArrayList<>(ids.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            T value = loaded.get(id);
+            if (value != null) {
+                found.add(value);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MultiGetResult<>(found, missing);
+    }
+
+    public List<T> getFound() {
+        return found;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+}
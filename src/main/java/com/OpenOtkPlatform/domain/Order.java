@@ -6,10 +6,18 @@ import java.util.Date;
 @Entity
 @Table(name = "orders")
 public class Order {
+    // 号段表分配主键（每次取 50 个），IDENTITY 会让 Hibernate 放弃 JDBC 批量插入
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id")
+    @TableGenerator(name = "order_id", table = "id_generator", pkColumnName = "name",
+                    valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 50)
     private Long id;
     
+    // 乐观锁版本号
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long version;
+    
     @Column(name = "item_id", nullable = false)
     private Long itemId;
     
@@ -36,6 +44,15 @@ public class Order {
     @Temporal(TemporalType.TIMESTAMP)
     private Date updateTime;
     
+    // 客户端提供的幂等键，唯一约束防止重试重复下单
+    @Column(name = "idempotency_key", length = 64, unique = true)
+    private String idempotencyKey;
+    
+    // 待确认订单的库存预占截止时间，过期未确认则自动取消
+    @Column(name = "reserved_until")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date reservedUntil;
+    
     public static final String STATUS_PENDING = "PENDING";
     public static final String STATUS_CONFIRMED = "CONFIRMED";
     public static final String STATUS_COMPLETED = "COMPLETED";
@@ -66,6 +83,10 @@ public class Order {
         this.id = id;
     }
     
+    public long getVersion() {
+        return version;
+    }
+    
     public Long getItemId() {
         return itemId;
     }
@@ -140,6 +161,22 @@ public class Order {
         this.updateTime = updateTime;
     }
     
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    public Date getReservedUntil() {
+        return reservedUntil;
+    }
+    
+    public void setReservedUntil(Date reservedUntil) {
+        this.reservedUntil = reservedUntil;
+    }
+    
     public boolean confirmOrder() {
         if (STATUS_PENDING.equals(this.status)) {
             this.status = STATUS_CONFIRMED;
@@ -0,0 +1,66 @@
+package com.OpenOtkPlatform.domain;
+
+import java.util.Date;
+
+/**
+ * 订单列表视图（含关联信息）- 在订单行上附带商品名称 / 单价以及买卖双方的用户名与联系方式
+ * 由一条关联查询生成；商品或用户已删除时对应字段为 null
+ */
+public class OrderDetail extends OrderSummary {
+    private final String itemName;
+    private final Double itemPrice;
+    private final String buyerUsername;
+    private final String buyerEmail;
+    private final String buyerPhone;
+    private final String sellerUsername;
+    private final String sellerEmail;
+    private final String sellerPhone;
+
+    public OrderDetail(Long id, Long itemId, Long buyerId, Long sellerId, Long quantity,
+                       Double totalPrice, String status, Date createTime,
+                       String itemName, Double itemPrice,
+                       String buyerUsername, String buyerEmail, String buyerPhone,
+                       String sellerUsername, String sellerEmail, String sellerPhone) {
+        super(id, itemId, buyerId, sellerId, quantity, totalPrice, status, createTime);
+        this.itemName = itemName;
+        this.itemPrice = itemPrice;
+        this.buyerUsername = buyerUsername;
+        this.buyerEmail = buyerEmail;
+        this.buyerPhone = buyerPhone;
+        this.sellerUsername = sellerUsername;
+        this.sellerEmail = sellerEmail;
+        this.sellerPhone = sellerPhone;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public Double getItemPrice() {
+        return itemPrice;
+    }
+
+    public String getBuyerUsername() {
+        return buyerUsername;
+    }
+
+    public String getBuyerEmail() {
+        return buyerEmail;
+    }
+
+    public String getBuyerPhone() {
+        return buyerPhone;
+    }
+
+    public String getSellerUsername() {
+        return sellerUsername;
+    }
+
+    public String getSellerEmail() {
+        return sellerEmail;
+    }
+
+    public String getSellerPhone() {
+        return sellerPhone;
+    }
+}
@@ -0,0 +1,80 @@
+package com.OpenOtkPlatform.domain;
+
+/**
+ * 订单事件 - 创建与各类状态变更；previousStatus 为变更前状态，创建时为 null
+ */
+public class OrderEvent extends DomainEvent {
+
+    public enum Type {
+        CREATED,
+        CONFIRMED,
+        COMPLETED,
+        CANCELLED,
+        // 预占超时由系统取消
+        EXPIRED,
+        // 直接修改状态（管理接口）
+        STATUS_CHANGED
+    }
+
+    private final Type type;
+    private final Long orderId;
+    private final Long itemId;
+    private final Long buyerId;
+    private final Long sellerId;
+    private final Long quantity;
+    private final Double totalPrice;
+    private final String status;
+    private final String previousStatus;
+
+    public OrderEvent(Type type, Order order, String previousStatus) {
+        this.type = type;
+        this.orderId = order.getId();
+        this.itemId = order.getItemId();
+        this.buyerId = order.getBuyerId();
+        this.sellerId = order.getSellerId();
+        this.quantity = order.getQuantity();
+        this.totalPrice = order.getTotalPrice();
+        this.status = order.getStatus();
+        this.previousStatus = previousStatus;
+    }
+
+    public static OrderEvent created(Order order) {
+        return new OrderEvent(Type.CREATED, order, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public Long getBuyerId() {
+        return buyerId;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public Double getTotalPrice() {
+        return totalPrice;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+}
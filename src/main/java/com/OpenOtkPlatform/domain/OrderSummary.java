@@ -0,0 +1,61 @@
+package com.OpenOtkPlatform.domain;
+
+import java.util.Date;
+
+/**
+ * 订单列表视图 - 不含版本号、幂等键等内部字段，查询结果不进入持久化上下文
+ */
+public class OrderSummary {
+    private final Long id;
+    private final Long itemId;
+    private final Long buyerId;
+    private final Long sellerId;
+    private final Long quantity;
+    private final Double totalPrice;
+    private final String status;
+    private final Date createTime;
+
+    public OrderSummary(Long id, Long itemId, Long buyerId, Long sellerId, Long quantity,
+                        Double totalPrice, String status, Date createTime) {
+        this.id = id;
+        this.itemId = itemId;
+        this.buyerId = buyerId;
+        this.sellerId = sellerId;
+        this.quantity = quantity;
+        this.totalPrice = totalPrice;
+        this.status = status;
+        this.createTime = createTime;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public Long getBuyerId() {
+        return buyerId;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public Double getTotalPrice() {
+        return totalPrice;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Date getCreateTime() {
+        return createTime;
+    }
+}
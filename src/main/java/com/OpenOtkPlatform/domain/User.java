@@ -10,6 +10,11 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // 乐观锁版本号，每次更新自增；并发修改以冲突失败代替静默覆盖
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long version;
+    
     @Column(nullable = false, unique = true, length = 50)
     private String username;
     
@@ -25,6 +30,10 @@ public class User {
     @Column(nullable = false, columnDefinition = "DECIMAL(10,2) DEFAULT 0.00")
     private Double balance;
     
+    // 已提交但尚未合并进 balance 的入账，仅用于展示
+    @Transient
+    private double pendingCredit;
+    
     @Column(name = "create_time", nullable = false)
     @Temporal(TemporalType.TIMESTAMP)
     private Date createTime;
@@ -57,6 +66,10 @@ public class User {
         this.id = id;
     }
     
+    public long getVersion() {
+        return version;
+    }
+    
     public String getUsername() {
         return username;
     }
@@ -118,6 +131,19 @@ public class User {
         this.updateTime = updateTime;
     }
     
+    public double getPendingCredit() {
+        return pendingCredit;
+    }
+    
+    public void setPendingCredit(double pendingCredit) {
+        this.pendingCredit = pendingCredit;
+    }
+    
+    // 可用余额 = 已合并余额 + 待合并入账
+    public double getAvailableBalance() {
+        return Math.round((balance + pendingCredit) * 100) / 100.0;
+    }
+    
     public void addBalance(Double amount) {
         if (amount > 0) {
             this.balance += amount;
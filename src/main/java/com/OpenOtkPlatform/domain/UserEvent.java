@@ -0,0 +1,29 @@
+package com.OpenOtkPlatform.domain;
+
+/**
+ * 用户事件 - 注册、登录与退出登录
+ */
+public class UserEvent extends DomainEvent {
+
+    public enum Type {
+        REGISTERED,
+        LOGGED_IN,
+        LOGGED_OUT
+    }
+
+    private final Type type;
+    private final Long userId;
+
+    public UserEvent(Type type, Long userId) {
+        this.type = type;
+        this.userId = userId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,129 @@
+package com.OpenOtkPlatform.domain;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+@Entity
+@Table(name = "user_order_summary")
+public class UserOrderSummary {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // 作为买家
+    @Column(name = "total_orders", nullable = false)
+    private Long totalOrders;
+
+    @Column(name = "pending_orders", nullable = false)
+    private Long pendingOrders;
+
+    @Column(name = "completed_orders", nullable = false)
+    private Long completedOrders;
+
+    @Column(name = "total_spent", nullable = false, columnDefinition = "DECIMAL(14,2)")
+    private Double totalSpent;
+
+    // 作为卖家
+    @Column(name = "sold_orders", nullable = false)
+    private Long soldOrders;
+
+    @Column(name = "total_earned", nullable = false, columnDefinition = "DECIMAL(14,2)")
+    private Double totalEarned;
+
+    @Column(name = "update_time", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updateTime;
+
+    public UserOrderSummary() {
+        this.totalOrders = 0L;
+        this.pendingOrders = 0L;
+        this.completedOrders = 0L;
+        this.totalSpent = 0.0;
+        this.soldOrders = 0L;
+        this.totalEarned = 0.0;
+        this.updateTime = new Date();
+    }
+
+    public UserOrderSummary(Long userId) {
+        this();
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getTotalOrders() {
+        return totalOrders;
+    }
+
+    public void setTotalOrders(Long totalOrders) {
+        this.totalOrders = totalOrders;
+    }
+
+    public Long getPendingOrders() {
+        return pendingOrders;
+    }
+
+    public void setPendingOrders(Long pendingOrders) {
+        this.pendingOrders = pendingOrders;
+    }
+
+    public Long getCompletedOrders() {
+        return completedOrders;
+    }
+
+    public void setCompletedOrders(Long completedOrders) {
+        this.completedOrders = completedOrders;
+    }
+
+    public Double getTotalSpent() {
+        return totalSpent;
+    }
+
+    public void setTotalSpent(Double totalSpent) {
+        this.totalSpent = totalSpent;
+    }
+
+    public Long getSoldOrders() {
+        return soldOrders;
+    }
+
+    public void setSoldOrders(Long soldOrders) {
+        this.soldOrders = soldOrders;
+    }
+
+    public Double getTotalEarned() {
+        return totalEarned;
+    }
+
+    public void setTotalEarned(Double totalEarned) {
+        this.totalEarned = totalEarned;
+    }
+
+    public Date getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(Date updateTime) {
+        this.updateTime = updateTime;
+    }
+
+    @Override
+    public String toString() {
+        return "UserOrderSummary{" +
+                "userId=" + userId +
+                ", totalOrders=" + totalOrders +
+                ", pendingOrders=" + pendingOrders +
+                ", completedOrders=" + completedOrders +
+                ", totalSpent=" + totalSpent +
+                ", soldOrders=" + soldOrders +
+                ", totalEarned=" + totalEarned +
+                ", updateTime=" + updateTime +
+                '}';
+    }
+}
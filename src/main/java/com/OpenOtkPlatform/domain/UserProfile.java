@@ -0,0 +1,73 @@
+package com.OpenOtkPlatform.domain;
+
+import java.util.Date;
+
+/**
+ * 用户资料视图 - 对外返回的用户信息，不含密码与版本号
+ */
+public class UserProfile {
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String phone;
+    private final Double balance;
+    private final Date createTime;
+
+    // 已提交但尚未合并进 balance 的入账
+    private double pendingCredit;
+
+    public UserProfile(Long id, String username, String email, String phone, Double balance, Date createTime) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.phone = phone;
+        this.balance = balance;
+        this.createTime = createTime;
+    }
+
+    public static UserProfile of(User user) {
+        if (user == null) {
+            return null;
+        }
+        UserProfile profile = new UserProfile(user.getId(), user.getUsername(), user.getEmail(), user.getPhone(),
+            user.getBalance(), user.getCreateTime());
+        profile.setPendingCredit(user.getPendingCredit());
+        return profile;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public Double getBalance() {
+        return balance;
+    }
+
+    public Date getCreateTime() {
+        return createTime;
+    }
+
+    public double getPendingCredit() {
+        return pendingCredit;
+    }
+
+    public void setPendingCredit(double pendingCredit) {
+        this.pendingCredit = pendingCredit;
+    }
+
+    public double getAvailableBalance() {
+        return Math.round((balance + pendingCredit) * 100) / 100.0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.OpenOtkPlatform.repository;
+
+import com.OpenOtkPlatform.domain.BalanceEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BalanceEntryRepository extends JpaRepository<BalanceEntry, Long> {
+    
+    // 启动时恢复尚未合并进 users.balance 的入账
+    List<BalanceEntry> findByAppliedFalseOrderByIdAsc();
+}
\ No newline at end of file
@@ -1,20 +1,62 @@
 package com.OpenOtkPlatform.repository;
 
 import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.domain.ItemSummary;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
     
+    // 列表视图：构造器表达式只取需要的列，description 截断为摘要，结果不受持久化上下文托管
+    String SUMMARY_SELECT = "SELECT new com.OpenOtkPlatform.domain.ItemSummary(i.id, i.name, "
+        + "SUBSTRING(i.description, 1, " + ItemSummary.PREVIEW_LENGTH + "), i.price, i.sellerId, i.stock, "
+        + "i.available, i.createTime) FROM Item i";
+    
     List<Item> findBySellerId(Long sellerId);
     
     List<Item> findByAvailableTrue();
     
+    // 游标分页：id > lastId，走主键索引
+    List<Item> findByAvailableTrueAndIdGreaterThanOrderByIdAsc(Long lastId, Limit limit);
+    
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long lastId, Limit limit);
+    
+    @Query(SUMMARY_SELECT + " WHERE i.available = true")
+    List<ItemSummary> findAvailableSummaries();
+    
+    @Query(SUMMARY_SELECT + " WHERE i.available = true AND i.id > :lastId ORDER BY i.id")
+    List<ItemSummary> findAvailableSummariesAfter(@Param("lastId") Long lastId, Limit limit);
+    
+    @Query(SUMMARY_SELECT + " WHERE i.sellerId = :sellerId")
+    List<ItemSummary> findSummariesBySellerId(@Param("sellerId") Long sellerId);
+    
+    @Query(SUMMARY_SELECT + " WHERE i.id IN :itemIds")
+    List<ItemSummary> findSummariesByIdIn(@Param("itemIds") Collection<Long> itemIds);
+    
+    @Query(SUMMARY_SELECT + " WHERE i.name LIKE %:keyword% OR i.description LIKE %:keyword%")
+    List<ItemSummary> searchSummaries(@Param("keyword") String keyword);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT i FROM Item i WHERE i.available = true ORDER BY i.id")
+    Stream<Item> streamAvailable();
+    
     List<Item> findByNameContainingIgnoreCase(String name);
     
     List<Item> findByDescriptionContainingIgnoreCase(String description);
@@ -26,4 +68,31 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByPriceRange(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice);
     
     List<Item> findByStockGreaterThan(Integer stock);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :itemId")
+    Optional<Item> findByIdForUpdate(@Param("itemId") Long itemId);
+    
+    // 批量下单：按主键升序加锁，与单笔下单的加锁顺序一致
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :itemIds ORDER BY i.id")
+    List<Item> findAllByIdForUpdate(@Param("itemIds") Collection<Long> itemIds);
+    
+    // 条件更新：库存充足时原子扣减，available 必须写在 stock 之前（MySQL 按顺序求值 SET 子句）
+    // 只供手动扣库存接口使用；下单在 OrderPlacementService 中锁商品行扣减（同一行锁还用于核对单价）
+    // 回补在取消 / 预占过期时执行；两者用原生 SQL：JPQL 批量更新每次执行都要重新解析并生成 SQL
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE items SET available = CASE WHEN stock > :quantity THEN TRUE ELSE FALSE END, "
+         + "stock = stock - :quantity, update_time = :updateTime, version = version + 1 "
+         + "WHERE id = :itemId AND available = TRUE AND stock >= :quantity", nativeQuery = true)
+    int reduceStockIfAvailable(@Param("itemId") Long itemId, @Param("quantity") Integer quantity,
+                               @Param("updateTime") Date updateTime);
+    
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE items SET stock = stock + :quantity, available = TRUE, update_time = :updateTime, "
+         + "version = version + 1 WHERE id = :itemId", nativeQuery = true)
+    int increaseStock(@Param("itemId") Long itemId, @Param("quantity") Integer quantity,
+                      @Param("updateTime") Date updateTime);
 }
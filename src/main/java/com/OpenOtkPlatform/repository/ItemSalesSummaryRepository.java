@@ -0,0 +1,9 @@
+package com.OpenOtkPlatform.repository;
+
+import com.OpenOtkPlatform.domain.ItemSalesSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ItemSalesSummaryRepository extends JpaRepository<ItemSalesSummary, Long> {
+}
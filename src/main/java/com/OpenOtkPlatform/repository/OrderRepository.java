@@ -1,27 +1,88 @@
 package com.OpenOtkPlatform.repository;
 
 import com.OpenOtkPlatform.domain.Order;
+import com.OpenOtkPlatform.domain.OrderDetail;
+import com.OpenOtkPlatform.domain.OrderSummary;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
+    String SUMMARY_SELECT = "SELECT new com.OpenOtkPlatform.domain.OrderSummary(o.id, o.itemId, o.buyerId, "
+        + "o.sellerId, o.quantity, o.totalPrice, o.status, o.createTime) FROM Order o";
+    
+    // 左连接：商品或用户被删除后订单仍然返回，关联字段为 null
+    String DETAIL_SELECT = "SELECT new com.OpenOtkPlatform.domain.OrderDetail(o.id, o.itemId, o.buyerId, "
+        + "o.sellerId, o.quantity, o.totalPrice, o.status, o.createTime, i.name, i.price, "
+        + "b.username, b.email, b.phone, s.username, s.email, s.phone) FROM Order o "
+        + "LEFT JOIN Item i ON i.id = o.itemId "
+        + "LEFT JOIN User b ON b.id = o.buyerId "
+        + "LEFT JOIN User s ON s.id = o.sellerId";
+    
     List<Order> findByBuyerId(Long buyerId);
     
     List<Order> findBySellerId(Long sellerId);
     
     List<Order> findByStatus(String status);
     
-    @Query("SELECT o FROM Order o WHERE o.buyerId = :userId OR o.sellerId = :userId")
-    List<Order> findByUserId(@Param("userId") Long userId);
+    List<Order> findByItemId(Long itemId);
     
-    @Query("SELECT o FROM Order o WHERE o.status = :status AND (o.buyerId = :userId OR o.sellerId = :userId)")
-    List<Order> findByStatusAndUserId(@Param("status") String status, @Param("userId") Long userId);
+    Optional<Order> findByIdempotencyKey(String idempotencyKey);
     
-    List<Order> findByItemId(Long itemId);
+    List<Order> findByIdGreaterThanOrderByIdAsc(Long lastId, Limit limit);
+    
+    @Query(SUMMARY_SELECT + " WHERE o.buyerId = :buyerId")
+    List<OrderSummary> findSummariesByBuyerId(@Param("buyerId") Long buyerId);
+    
+    @Query(SUMMARY_SELECT + " WHERE o.sellerId = :sellerId")
+    List<OrderSummary> findSummariesBySellerId(@Param("sellerId") Long sellerId);
+    
+    @Query(DETAIL_SELECT + " WHERE o.buyerId = :buyerId ORDER BY o.id")
+    List<OrderDetail> findDetailsByBuyerId(@Param("buyerId") Long buyerId);
+    
+    @Query(DETAIL_SELECT + " WHERE o.sellerId = :sellerId ORDER BY o.id")
+    List<OrderDetail> findDetailsBySellerId(@Param("sellerId") Long sellerId);
+    
+    @Query(SUMMARY_SELECT)
+    List<OrderSummary> findAllSummaries();
+    
+    @Query(SUMMARY_SELECT + " WHERE o.id > :lastId ORDER BY o.id")
+    List<OrderSummary> findSummariesAfter(@Param("lastId") Long lastId, Limit limit);
+    
+    // 预占到期批量取消：按主键升序加锁，只锁仍处于该状态的订单
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :orderIds AND o.status = :status ORDER BY o.id")
+    List<Order> findAllByIdAndStatusForUpdate(@Param("orderIds") Collection<Long> orderIds,
+                                              @Param("status") String status);
+    
+    // 启动时重建时间轮：[订单ID, 预占截止时间]，走 idx_status
+    @Query("SELECT o.id, o.reservedUntil FROM Order o WHERE o.status = :status AND o.reservedUntil IS NOT NULL")
+    List<Object[]> findReservationDeadlines(@Param("status") String status);
+    
+    // 升级前创建的待确认订单没有截止时间，统一补上
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.reservedUntil = :deadline WHERE o.status = :status AND o.reservedUntil IS NULL")
+    int fillMissingReservedUntil(@Param("status") String status, @Param("deadline") Date deadline);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o FROM Order o ORDER BY o.id")
+    Stream<Order> streamAll();
 }
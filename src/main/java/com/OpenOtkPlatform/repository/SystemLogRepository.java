@@ -1,13 +1,18 @@
 package com.OpenOtkPlatform.repository;
 
 import com.OpenOtkPlatform.domain.SystemLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SystemLogRepository extends JpaRepository<SystemLog, Long> {
@@ -18,6 +23,7 @@ public interface SystemLogRepository extends JpaRepository<SystemLog, Long> {
     
     List<SystemLog> findByCreateTimeBetween(Date startTime, Date endTime);
     
+    // 命中 (user_id, operation_type, create_time)
     @Query("SELECT l FROM SystemLog l WHERE l.userId = :userId AND l.operationType = :operationType")
     List<SystemLog> findByUserIdAndOperationType(@Param("userId") Long userId, @Param("operationType") String operationType);
     
@@ -25,4 +31,10 @@ public interface SystemLogRepository extends JpaRepository<SystemLog, Long> {
     List<SystemLog> findRecentLogs(@Param("startTime") Date startTime);
     
     List<SystemLog> findByDescriptionContainingIgnoreCase(String keyword);
+    
+    List<SystemLog> findByIdGreaterThanOrderByIdAsc(Long lastId, Limit limit);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT l FROM SystemLog l ORDER BY l.id")
+    Stream<SystemLog> streamAll();
 }
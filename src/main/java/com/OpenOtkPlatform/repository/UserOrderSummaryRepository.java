@@ -0,0 +1,9 @@
+package com.OpenOtkPlatform.repository;
+
+import com.OpenOtkPlatform.domain.UserOrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserOrderSummaryRepository extends JpaRepository<UserOrderSummary, Long> {
+}
@@ -1,11 +1,17 @@
 package com.OpenOtkPlatform.repository;
 
 import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.domain.UserProfile;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +20,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByUsername(String username);
     
+    // 对外展示用，不读取密码列
+    @Query("SELECT new com.OpenOtkPlatform.domain.UserProfile(u.id, u.username, u.email, u.phone, u.balance, "
+        + "u.createTime) FROM User u WHERE u.id = :userId")
+    Optional<UserProfile> findProfileById(@Param("userId") Long userId);
+    
+    @Query("SELECT new com.OpenOtkPlatform.domain.UserProfile(u.id, u.username, u.email, u.phone, u.balance, "
+        + "u.createTime) FROM User u WHERE u.id IN :userIds")
+    List<UserProfile> findProfilesByIdIn(@Param("userIds") Collection<Long> userIds);
+    
     Optional<User> findByEmail(String email);
     
     boolean existsByUsername(String username);
@@ -22,4 +37,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     @Query("SELECT u FROM User u WHERE u.username LIKE %:keyword% OR u.email LIKE %:keyword%")
     List<User> findByUsernameOrEmailContaining(@Param("keyword") String keyword);
+    
+    // 登录时重新哈希：仅在密码未被并发修改时替换，不递增版本号，避免与余额等乐观锁更新冲突
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :userId AND u.password = :oldPassword")
+    int updatePasswordIfUnchanged(@Param("userId") Long userId, @Param("oldPassword") String oldPassword,
+                                  @Param("newPassword") String newPassword);
+    
+    // 按主键升序加锁，保证多用户加锁顺序一致，避免死锁
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id IN :userIds ORDER BY u.id")
+    List<User> findAllByIdForUpdate(@Param("userIds") Collection<Long> userIds);
 }
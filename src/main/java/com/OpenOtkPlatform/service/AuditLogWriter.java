@@ -0,0 +1,335 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.domain.SystemLog;
+import com.OpenOtkPlatform.util.Logger;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 审计日志异步写入器
+ * 有界环形队列 + 后台线程，按条数或时间批量写入 system_logs
+ * 写库失败的批次溢写到 spill-file；数据库恢复（有批次写入成功）后在空闲时回放。
+ * 连续失败期间按指数退避（上限 retry-max-backoff-ms）探测，不反复回放
+ */
+@Component
+public class AuditLogWriter {
+
+    public static final String POLICY_BLOCK = "BLOCK";
+    public static final String POLICY_DROP = "DROP";
+    public static final String POLICY_SPILL = "SPILL";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO system_logs (operation_type, user_id, description, create_time) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${audit.log.queue-capacity:8192}")
+    private int queueCapacity;
+
+    @Value("${audit.log.batch-size:200}")
+    private int batchSize;
+
+    @Value("${audit.log.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${audit.log.overflow-policy:BLOCK}")
+    private String overflowPolicy;
+
+    @Value("${audit.log.spill-file:logs/audit-spill.log}")
+    private String spillFile;
+
+    @Value("${audit.log.retry-max-backoff-ms:30000}")
+    private long retryMaxBackoffMs;
+
+    private final Logger logger = Logger.getInstance();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong spilledCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    // 连续写库失败次数；为 0 表示最近一次写入成功
+    private volatile int failureCount;
+    // 失败期间下一次允许回放（即探测数据库）的时间，System.nanoTime
+    private volatile long nextReplayNanos;
+    // 溢写文件锁；用 ReentrantLock 而非 synchronized，避免虚拟线程在文件 IO 时被钉住
+    private final ReentrantLock spillLock = new ReentrantLock();
+
+    private BlockingQueue<SystemLog> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::drainLoop, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 停机前把剩余事件全部落库
+        List<SystemLog> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+        }
+        replaySpill();
+    }
+
+    public void submit(SystemLog log) {
+        if (running && queue.offer(log)) {
+            return;
+        }
+        if (!running) {
+            flush(new ArrayList<>(List.of(log)));
+            return;
+        }
+        switch (overflowPolicy.toUpperCase()) {
+            case POLICY_DROP:
+                droppedCount.incrementAndGet();
+                break;
+            case POLICY_SPILL:
+                spill(log);
+                break;
+            default:
+                try {
+                    queue.put(log);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    spill(log);
+                }
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    private void drainLoop() {
+        List<SystemLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                SystemLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                    while (batch.size() < batchSize) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        long remaining = deadline - System.nanoTime();
+                        if (batch.size() >= batchSize || remaining <= 0) {
+                            break;
+                        }
+                        SystemLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    flush(batch);
+                } else if (failureCount == 0 || System.nanoTime() - nextReplayNanos >= 0) {
+                    replaySpill();
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        flush(batch);
+    }
+
+    /**
+     * 同步批量写入，不经过队列；在事务内调用时随调用方事务提交或回滚
+     */
+    public void insertBatch(List<SystemLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, logs, logs.size(), (ps, log) -> {
+            ps.setString(1, log.getOperationType());
+            if (log.getUserId() == null) {
+                ps.setNull(2, Types.BIGINT);
+            } else {
+                ps.setLong(2, log.getUserId());
+            }
+            ps.setString(3, log.getDescription());
+            ps.setTimestamp(4, new Timestamp(log.getCreateTime().getTime()));
+        });
+    }
+
+    private void flush(List<SystemLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (!write(batch)) {
+            for (SystemLog log : batch) {
+                spill(log);
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * 写入一批并记录成败；只在连续失败的第一次与恢复时打日志
+     */
+    private boolean write(List<SystemLog> batch) {
+        try {
+            insertBatch(batch);
+        } catch (Exception e) {
+            int failures = ++failureCount;
+            long backoffMs = Math.min(retryMaxBackoffMs, flushIntervalMs << Math.min(failures, 20));
+            nextReplayNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+            if (failures == 1) {
+                logger.error("AuditLogWriter: batch insert failed, spilling until the database recovers: " + e.getMessage());
+            }
+            return false;
+        }
+        writtenCount.addAndGet(batch.size());
+        if (failureCount > 0) {
+            logger.info("AuditLogWriter: batch insert recovered after " + failureCount + " failures");
+            failureCount = 0;
+        }
+        return true;
+    }
+
+    private void spill(SystemLog log) {
+        Path path = Paths.get(spillFile);
+        spillLock.lock();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(log.getOperationType() + '\t'
+                        + (log.getUserId() == null ? "" : log.getUserId()) + '\t'
+                        + log.getCreateTime().getTime() + '\t'
+                        + escape(log.getDescription()));
+                writer.newLine();
+            }
+            spilledCount.incrementAndGet();
+        } catch (IOException e) {
+            droppedCount.incrementAndGet();
+            logger.error("AuditLogWriter: spill failed: " + e.getMessage());
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * 回放溢写文件：每写入一批就把已回放的行数记入 .pos 文件，崩溃后从该位置继续，最多重复写入一批；
+     * 遇到失败立即停止，保留文件等待下次回放，不再重新溢写
+     */
+    private void replaySpill() {
+        Path path = Paths.get(spillFile);
+        Path replaying = Paths.get(spillFile + ".replay");
+        Path position = Paths.get(spillFile + ".replay.pos");
+        spillLock.lock();
+        try {
+            // 上次未回放完的文件优先处理
+            if (!Files.exists(replaying)) {
+                if (!Files.exists(path)) {
+                    return;
+                }
+                try {
+                    Files.move(path, replaying, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        } finally {
+            spillLock.unlock();
+        }
+        List<SystemLog> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+            long done = Files.exists(position) ? Long.parseLong(Files.readString(position).trim()) : 0;
+            long lineNo = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (++lineNo <= done) {
+                    continue;
+                }
+                String[] parts = line.split("\t", 4);
+                if (parts.length == 4) {
+                    SystemLog log = new SystemLog(parts[0], parts[1].isEmpty() ? null : Long.valueOf(parts[1]), unescape(parts[3]));
+                    log.setCreateTime(new Date(Long.parseLong(parts[2])));
+                    batch.add(log);
+                }
+                if (batch.size() >= batchSize) {
+                    if (!write(batch)) {
+                        return;
+                    }
+                    batch.clear();
+                    Files.writeString(position, Long.toString(lineNo));
+                }
+            }
+            if (!batch.isEmpty() && !write(batch)) {
+                return;
+            }
+            Files.deleteIfExists(replaying);
+            Files.deleteIfExists(position);
+        } catch (IOException | RuntimeException e) {
+            logger.error("AuditLogWriter: spill replay failed: " + e.getMessage());
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char n = value.charAt(++i);
+                sb.append(n == 't' ? '\t' : n == 'n' ? '\n' : n == 'r' ? '\r' : n);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
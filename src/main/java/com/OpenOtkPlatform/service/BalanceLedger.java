@@ -0,0 +1,276 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.domain.BalanceEntry;
+import com.OpenOtkPlatform.domain.Order;
+import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.domain.UserProfile;
+import com.OpenOtkPlatform.repository.BalanceEntryRepository;
+import com.OpenOtkPlatform.util.Logger;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 余额账本 - 入账只追加流水，不再读改写 users 行
+ * 已提交未合并的入账按用户累加在内存（LongAdder 分段计数），可用余额 = users.balance + 待合并入账；
+ * 后台线程定期把入账批量合并进 users.balance。扣款仍在持有用户行锁时直接扣减并记一条已合并的借记流水
+ * 热门卖家每笔订单只追加一行流水，不再串行在同一个 users 行上
+ */
+@Service
+public class BalanceLedger {
+
+    private static final String MARK_APPLIED_SQL =
+        "UPDATE balance_journal SET applied = TRUE WHERE id = ? AND applied = FALSE";
+
+    // 同步递增 version，让并发的乐观锁更新感知到余额变化
+    private static final String APPLY_CREDIT_SQL =
+        "UPDATE users SET balance = balance + ?, version = version + 1, update_time = ? WHERE id = ?";
+
+    @Autowired
+    private BalanceEntryRepository balanceEntryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${balance.ledger.snapshot-interval-ms:200}")
+    private long snapshotIntervalMs;
+
+    @Value("${balance.ledger.snapshot-batch-size:1000}")
+    private int snapshotBatchSize;
+
+    private final Logger logger = Logger.getInstance();
+
+    // 条目只增不删，与 SalesStatsService 相同：条目数以用户数为上限
+    private final ConcurrentMap<Long, LongAdder> pendingCents = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingCredit> committedCredits = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger committedCount = new AtomicInteger();
+    private final LongAdder appliedCount = new LongAdder();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // 上次停机前未合并的入账重新排队
+        for (BalanceEntry entry : balanceEntryRepository.findByAppliedFalseOrderByIdAsc()) {
+            if (entry.isCredit()) {
+                enqueue(new PendingCredit(entry.getId(), entry.getUserId(), toCents(entry.getAmount())));
+            }
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "balance-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalMs, snapshotIntervalMs,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        while (committedCount.get() > 0 && snapshotQuietly()) {
+            // 停机前尽量合并完
+        }
+    }
+
+    /**
+     * 入账：追加一条待合并流水，随调用方事务提交后计入可用余额
+     */
+    public BalanceEntry credit(Long userId, Double amount, String reason, Long refId) {
+        BalanceEntry entry = balanceEntryRepository.save(
+            new BalanceEntry(userId, BalanceEntry.TYPE_CREDIT, amount, reason, refId));
+        PendingCredit credit = new PendingCredit(entry.getId(), userId, toCents(amount));
+        afterCommit(() -> enqueue(credit));
+        return entry;
+    }
+
+    /**
+     * 扣款：调用方须持有该用户的行锁（或在乐观锁事务内），可用余额不足返回 null
+     * 待合并入账可以抵扣，因此 users.balance 可能暂时为负，合并后恢复
+     * 返回的流水仍处于托管状态，refId 可在提交前补上
+     */
+    public BalanceEntry debit(User user, Double amount, String reason, Long refId) {
+        if (amount == null || amount <= 0 || getAvailableBalance(user) < amount) {
+            return null;
+        }
+        user.setBalance((toCents(user.getBalance()) - toCents(amount)) / 100.0);
+        user.setUpdateTime(new Date());
+        return balanceEntryRepository.save(
+            new BalanceEntry(user.getId(), BalanceEntry.TYPE_DEBIT, amount, reason, refId));
+    }
+
+    /**
+     * 取消订单的资金回退：买家退款入账，卖家扣回（调用方须持有卖家行锁或在乐观锁事务内）
+     * 卖家不存在或可用余额不足时只退款，返回 false
+     */
+    public boolean reverseOrder(Order order, User seller, String reason) {
+        credit(order.getBuyerId(), order.getTotalPrice(), reason, order.getId());
+        return seller != null && debit(seller, order.getTotalPrice(), reason, order.getId()) != null;
+    }
+
+    public double getPendingCredit(Long userId) {
+        LongAdder cents = pendingCents.get(userId);
+        return cents == null ? 0.0 : cents.sum() / 100.0;
+    }
+
+    public double getAvailableBalance(User user) {
+        return (toCents(user.getBalance()) + toCents(getPendingCredit(user.getId()))) / 100.0;
+    }
+
+    /**
+     * 供展示用：把待合并入账填到 User 的非持久化字段上
+     */
+    public User withPendingCredit(User user) {
+        if (user != null) {
+            user.setPendingCredit(getPendingCredit(user.getId()));
+        }
+        return user;
+    }
+
+    public UserProfile withPendingCredit(UserProfile profile) {
+        if (profile != null) {
+            profile.setPendingCredit(getPendingCredit(profile.getId()));
+        }
+        return profile;
+    }
+
+    public int getPendingEntryCount() {
+        return committedCount.get();
+    }
+
+    public long getAppliedCount() {
+        return appliedCount.sum();
+    }
+
+    /**
+     * 把一批已提交的入账合并进 users.balance
+     * 先从内存扣掉（可用余额只会被低估，不会超额扣款），写库失败再加回并重新排队
+     * 流水按 applied 条件更新，只有本次真正标记成功的才累加，重复合并不会重复入账
+     * 返回本次是否合并了入账
+     */
+    public boolean snapshot() {
+        snapshotLock.lock();
+        try {
+            List<PendingCredit> batch = new ArrayList<>();
+            PendingCredit next;
+            while (batch.size() < snapshotBatchSize && (next = committedCredits.poll()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                return false;
+            }
+            committedCount.addAndGet(-batch.size());
+            for (PendingCredit credit : batch) {
+                pendingCents.get(credit.userId).add(-credit.cents);
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Object[]> entryIds = new ArrayList<>(batch.size());
+                    for (PendingCredit credit : batch) {
+                        entryIds.add(new Object[] {credit.entryId});
+                    }
+                    int[] marked = jdbcTemplate.batchUpdate(MARK_APPLIED_SQL, entryIds);
+
+                    // 按用户ID升序更新，加锁顺序与下单一致
+                    Map<Long, Long> centsByUser = new TreeMap<>();
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (marked[i] != 0) {
+                            centsByUser.merge(batch.get(i).userId, batch.get(i).cents, Long::sum);
+                        }
+                    }
+                    Date now = new Date();
+                    List<Object[]> rows = new ArrayList<>(centsByUser.size());
+                    for (Map.Entry<Long, Long> entry : centsByUser.entrySet()) {
+                        rows.add(new Object[] {BigDecimal.valueOf(entry.getValue(), 2), now, entry.getKey()});
+                    }
+                    if (!rows.isEmpty()) {
+                        jdbcTemplate.batchUpdate(APPLY_CREDIT_SQL, rows);
+                    }
+                });
+            } catch (RuntimeException e) {
+                for (PendingCredit credit : batch) {
+                    enqueue(credit);
+                }
+                throw e;
+            }
+            appliedCount.add(batch.size());
+            return true;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private boolean snapshotQuietly() {
+        try {
+            return snapshot();
+        } catch (Exception e) {
+            logger.error("BalanceLedger: snapshot failed, will retry: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void enqueue(PendingCredit credit) {
+        pendingCents.computeIfAbsent(credit.userId, id -> new LongAdder()).add(credit.cents);
+        committedCredits.add(credit);
+        committedCount.incrementAndGet();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long toCents(Double amount) {
+        return amount == null ? 0L : Math.round(amount * 100);
+    }
+
+    private static final class PendingCredit {
+        final Long entryId;
+        final Long userId;
+        final long cents;
+
+        PendingCredit(Long entryId, Long userId, long cents) {
+            this.entryId = entryId;
+            this.userId = userId;
+            this.cents = cents;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.OpenOtkPlatform.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 商品目录响应缓存 - 缓存已编码的 UTF-8 响应体及其 ETag / Last-Modified
+ * 命中时既不查库也不经过 Jackson；任何商品写入（经 ItemCache 失效）都会清空全部条目
+ * 失效时递增代数，加载期间发生过失效的结果不回填，避免并发读把旧内容写回缓存
+ */
+@Component
+public class CatalogResponseCache {
+
+    @Value("${catalog.response-cache.max-size:1024}")
+    private long maxSize;
+
+    @Value("${catalog.response-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Cache<String, CachedResponse> responses;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder notModifiedCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        responses = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * 取缓存的响应，未命中时由 body 生成响应对象并编码
+     */
+    public CachedResponse get(String key, Supplier<Object> body) {
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadGeneration = generation.get();
+        CachedResponse loaded = encode(body.get());
+        // 检查与写入在同一个原子操作内：失效先递增代数再清空，写入要么被拒绝，要么随后被清掉
+        responses.asMap().compute(key, (k, existing) ->
+            existing == null && generation.get() == loadGeneration ? loaded : existing);
+        return loaded;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        responses.invalidateAll();
+    }
+
+    public void recordNotModified() {
+        notModifiedCount.increment();
+    }
+
+    public CacheStats stats() {
+        return responses.stats();
+    }
+
+    public long size() {
+        return responses.estimatedSize();
+    }
+
+    public long getNotModifiedCount() {
+        return notModifiedCount.sum();
+    }
+
+    private CachedResponse encode(Object body) {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        // HTTP 日期精度为秒
+        long lastModified = System.currentTimeMillis() / 1000 * 1000;
+        return new CachedResponse(bytes, etagOf(bytes), lastModified);
+    }
+
+    // 强 ETag：响应体 SHA-256 的前 16 字节，内容不变则失效重建后 ETag 也不变
+    private static String etagOf(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class CachedResponse {
+        private final byte[] body;
+        private final String etag;
+        private final long lastModified;
+
+        public CachedResponse(byte[] body, String etag, long lastModified) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public byte[] getBody() { return body; }
+        public String getEtag() { return etag; }
+        public long getLastModified() { return lastModified; }
+    }
+}
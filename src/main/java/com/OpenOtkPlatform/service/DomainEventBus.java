@@ -0,0 +1,281 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.domain.DomainEvent;
+import com.OpenOtkPlatform.util.Logger;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 进程内领域事件总线 - 多生产者环形缓冲区（Disruptor 式），每个订阅者一个消费线程
+ * 发布：CAS 领取序号 -> 写入槽位 -> 标记该槽位本圈已发布，全程无锁；缓冲区满时等待最慢的订阅者腾出槽位
+ * 消费：各订阅者维护自己的序号，一次取走所有已连续发布的事件（上限 max-batch-size）成批处理
+ * 事务中发布的事件在提交后才进入缓冲区，回滚则丢弃；订阅者抛异常只记录并跳过该批，不影响其他订阅者
+ */
+@Service
+public class DomainEventBus {
+
+    public static final String SUBSCRIBER_AUDIT = "audit";
+    public static final String SUBSCRIBER_STATS = "stats";
+    public static final String SUBSCRIBER_CACHE = "cache";
+    public static final String SUBSCRIBER_STREAM = "stream";
+    public static final String[] SUBSCRIBERS = {SUBSCRIBER_AUDIT, SUBSCRIBER_STATS, SUBSCRIBER_CACHE, SUBSCRIBER_STREAM};
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    @Value("${event.bus.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${event.bus.max-batch-size:256}")
+    private int maxBatchSize;
+
+    private final Logger logger = Logger.getInstance();
+    // 最后一个已领取的序号
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Map<String, Subscriber> subscribersByName = new ConcurrentHashMap<>();
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder fullWaitCount = new LongAdder();
+
+    private DomainEvent[] entries;
+    // 每个槽位最近一次发布时所在的圈数，消费者据此判断槽位是否已写好
+    private AtomicIntegerArray published;
+    private int mask;
+    private int indexShift;
+
+    @PostConstruct
+    public void init() {
+        int size = Integer.highestOneBit(Math.max(bufferSize, 2));
+        if (size < bufferSize) {
+            size <<= 1;
+        }
+        entries = new DomainEvent[size];
+        published = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        mask = size - 1;
+        indexShift = Integer.numberOfTrailingZeros(size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            unsubscribe(subscriber.name);
+        }
+    }
+
+    /**
+     * 注册订阅者并启动其消费线程，只接收注册之后发布的事件
+     */
+    public synchronized void subscribe(String name, EventHandler handler) {
+        if (subscribersByName.containsKey(name)) {
+            throw new IllegalStateException("Subscriber already registered: " + name);
+        }
+        Subscriber subscriber = new Subscriber(name, handler, cursor.get());
+        subscribers.add(subscriber);
+        subscribersByName.put(name, subscriber);
+        subscriber.thread.start();
+    }
+
+    /**
+     * 处理完已发布的事件后停止消费线程；订阅者在自身销毁前调用，保证停机前事件不丢
+     */
+    public void unsubscribe(String name) {
+        Subscriber subscriber = subscribersByName.get(name);
+        if (subscriber == null || !subscriber.running) {
+            return;
+        }
+        subscriber.running = false;
+        LockSupport.unpark(subscriber.thread);
+        try {
+            subscriber.thread.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        subscribers.remove(subscriber);
+        if (subscriber.thread.isAlive()) {
+            logger.warn("DomainEventBus: subscriber " + name + " did not drain within " + SHUTDOWN_TIMEOUT_MS + "ms");
+        }
+    }
+
+    /**
+     * 处于事务中时提交后发布，否则立即发布
+     */
+    public void publish(DomainEvent event) {
+        if (event == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishNow(event);
+                }
+            });
+        } else {
+            publishNow(event);
+        }
+    }
+
+    private void publishNow(DomainEvent event) {
+        long sequence = claim();
+        int index = (int) (sequence & mask);
+        entries[index] = event;
+        published.set(index, (int) (sequence >>> indexShift));
+        publishedCount.increment();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.waiting) {
+                LockSupport.unpark(subscriber.thread);
+            }
+        }
+    }
+
+    private long claim() {
+        boolean waited = false;
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            if (next - entries.length > minimumSequence(current)) {
+                if (!waited) {
+                    waited = true;
+                    fullWaitCount.increment();
+                }
+                LockSupport.parkNanos(1000);
+                continue;
+            }
+            if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private long minimumSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (Subscriber subscriber : subscribers) {
+            minimum = Math.min(minimum, subscriber.sequence.get());
+        }
+        return minimum;
+    }
+
+    private boolean isPublished(long sequence) {
+        return published.get((int) (sequence & mask)) == (int) (sequence >>> indexShift);
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getFullWaitCount() {
+        return fullWaitCount.sum();
+    }
+
+    /**
+     * 订阅者落后的事件数（已领取序号 - 已处理序号），未注册返回 0
+     */
+    public long getLag(String name) {
+        Subscriber subscriber = subscribersByName.get(name);
+        return subscriber == null || !subscriber.running ? 0 : Math.max(0, cursor.get() - subscriber.sequence.get());
+    }
+
+    public long getConsumedCount(String name) {
+        Subscriber subscriber = subscribersByName.get(name);
+        return subscriber == null ? 0 : subscriber.consumedCount.sum();
+    }
+
+    public long getBatchCount(String name) {
+        Subscriber subscriber = subscribersByName.get(name);
+        return subscriber == null ? 0 : subscriber.batchCount.sum();
+    }
+
+    public long getFailedCount(String name) {
+        Subscriber subscriber = subscribersByName.get(name);
+        return subscriber == null ? 0 : subscriber.failedCount.sum();
+    }
+
+    @FunctionalInterface
+    public interface EventHandler {
+        void onEvents(List<DomainEvent> events);
+    }
+
+    private final class Subscriber implements Runnable {
+        final String name;
+        final EventHandler handler;
+        // 已处理到的序号
+        final AtomicLong sequence;
+        final Thread thread;
+        final LongAdder consumedCount = new LongAdder();
+        final LongAdder batchCount = new LongAdder();
+        final LongAdder failedCount = new LongAdder();
+        volatile boolean running = true;
+        volatile boolean waiting;
+
+        Subscriber(String name, EventHandler handler, long sequence) {
+            this.name = name;
+            this.handler = handler;
+            this.sequence = new AtomicLong(sequence);
+            this.thread = new Thread(this, "event-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<DomainEvent> batch = new ArrayList<>(maxBatchSize);
+            while (true) {
+                long next = sequence.get() + 1;
+                long available = highestPublished(next);
+                if (available < next) {
+                    // 停止时只在已领取的事件全部处理完后退出
+                    if (!running && cursor.get() < next) {
+                        return;
+                    }
+                    waiting = true;
+                    if (highestPublished(next) < next) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    waiting = false;
+                    continue;
+                }
+                for (long s = next; s <= available; s++) {
+                    batch.add(entries[(int) (s & mask)]);
+                }
+                try {
+                    handler.onEvents(batch);
+                } catch (Exception e) {
+                    failedCount.add(batch.size());
+                    logger.error("DomainEventBus: subscriber " + name + " failed on " + batch.size()
+                        + " events: " + e.getMessage());
+                }
+                consumedCount.add(batch.size());
+                batchCount.increment();
+                batch.clear();
+                sequence.set(available);
+            }
+        }
+
+        // 从 next 开始连续已发布的最大序号，超过批次上限截断
+        private long highestPublished(long next) {
+            long limit = Math.min(cursor.get(), next + maxBatchSize - 1);
+            long s = next;
+            while (s <= limit && isPublished(s)) {
+                s++;
+            }
+            return s - 1;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.domain.DomainEvent;
+import com.OpenOtkPlatform.domain.ItemEvent;
+import com.OpenOtkPlatform.domain.ItemSummary;
+import com.OpenOtkPlatform.domain.OrderEvent;
+import com.OpenOtkPlatform.repository.ItemRepository;
+import com.OpenOtkPlatform.util.Logger;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 实时推送注册表 - 按用户 / 商品登记 SSE 连接，订阅 DomainEventBus 后向相关连接扇出
+ * 用户连接收到其作为买家或卖家的订单状态变化（order），商品连接收到库存变化（stock）
+ * 每个连接一个有界缓冲区，由发送线程池写出，慢连接不会拖住事件线程；缓冲区满时断开该连接，
+ * 客户端重连后重新拉取一次列表即可对齐。每 heartbeat-seconds 发送一条注释行保活并探测断开的连接
+ */
+@Service
+public class EventStreamRegistry {
+
+    public static final String EVENT_READY = "ready";
+    public static final String EVENT_ORDER = "order";
+    public static final String EVENT_STOCK = "stock";
+
+    private static final Message HEARTBEAT = new Message(null, null);
+
+    @Autowired
+    private DomainEventBus eventBus;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Value("${stream.max-clients:10000}")
+    private int maxClients;
+
+    @Value("${stream.client-buffer:64}")
+    private int clientBuffer;
+
+    @Value("${stream.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    // 连接最长保持时间，到期由客户端重连
+    @Value("${stream.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${stream.sender-threads:2}")
+    private int senderThreads;
+
+    private final Logger logger = Logger.getInstance();
+    private final ConcurrentMap<Long, Set<Client>> userClients = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Client>> itemClients = new ConcurrentHashMap<>();
+    private final AtomicInteger clientCount = new AtomicInteger();
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder overflowCount = new LongAdder();
+
+    private ExecutorService senders;
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadId = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "stream-sender-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        eventBus.subscribe(DomainEventBus.SUBSCRIBER_STREAM, this::onEvents);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        eventBus.unsubscribe(DomainEventBus.SUBSCRIBER_STREAM);
+        heartbeat.shutdownNow();
+        for (Set<Client> clients : userClients.values()) {
+            clients.forEach(Client::close);
+        }
+        for (Set<Client> clients : itemClients.values()) {
+            clients.forEach(Client::close);
+        }
+        senders.shutdownNow();
+    }
+
+    /**
+     * 连接数已达上限返回 null
+     */
+    public SseEmitter openUserStream(Long userId) {
+        return open(userClients, userId);
+    }
+
+    public SseEmitter openItemStream(Long itemId) {
+        return open(itemClients, itemId);
+    }
+
+    public int getClientCount() {
+        return clientCount.get();
+    }
+
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    public long getOverflowCount() {
+        return overflowCount.sum();
+    }
+
+    private SseEmitter open(ConcurrentMap<Long, Set<Client>> registry, Long key) {
+        if (clientCount.incrementAndGet() > maxClients) {
+            clientCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Client client = new Client(registry, key, emitter);
+        emitter.onCompletion(client::remove);
+        emitter.onTimeout(client::close);
+        emitter.onError(e -> client.close());
+        registry.compute(key, (k, clients) -> {
+            Set<Client> result = clients == null ? ConcurrentHashMap.newKeySet() : clients;
+            result.add(client);
+            return result;
+        });
+        // 首个事件让响应头立即发出，客户端据此判断连接已建立
+        deliver(client, new Message(EVENT_READY, Map.of("id", key)));
+        return emitter;
+    }
+
+    /**
+     * 推送订阅者：订单事件按买卖双方分发；库存事件按商品合并，一批事件只查一次最新库存
+     */
+    void onEvents(List<DomainEvent> events) {
+        Set<Long> changedItemIds = new HashSet<>();
+        for (DomainEvent event : events) {
+            if (event instanceof OrderEvent order) {
+                Message message = new Message(EVENT_ORDER, orderPayload(order));
+                deliverAll(userClients.get(order.getBuyerId()), message);
+                deliverAll(userClients.get(order.getSellerId()), message);
+            } else if (event instanceof ItemEvent item && itemClients.containsKey(item.getItemId())) {
+                changedItemIds.add(item.getItemId());
+            }
+        }
+        if (changedItemIds.isEmpty()) {
+            return;
+        }
+        // 事件在提交后发布，直接查库读到的是已提交的库存；不走 ItemCache，避免读到尚未失效的旧值
+        Map<Long, ItemSummary> items = new LinkedHashMap<>();
+        for (ItemSummary item : itemRepository.findSummariesByIdIn(changedItemIds)) {
+            items.put(item.getId(), item);
+        }
+        for (Long itemId : changedItemIds) {
+            ItemSummary item = items.get(itemId);
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("itemId", itemId);
+            payload.put("stock", item == null ? 0 : item.getStock());
+            payload.put("available", item != null && Boolean.TRUE.equals(item.getAvailable()));
+            payload.put("deleted", item == null);
+            deliverAll(itemClients.get(itemId), new Message(EVENT_STOCK, payload));
+        }
+    }
+
+    private static Map<String, Object> orderPayload(OrderEvent order) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", order.getType());
+        payload.put("id", order.getOrderId());
+        payload.put("itemId", order.getItemId());
+        payload.put("buyerId", order.getBuyerId());
+        payload.put("sellerId", order.getSellerId());
+        payload.put("quantity", order.getQuantity());
+        payload.put("totalPrice", order.getTotalPrice());
+        payload.put("status", order.getStatus());
+        payload.put("previousStatus", order.getPreviousStatus());
+        return payload;
+    }
+
+    private void sendHeartbeats() {
+        List<Client> clients = new ArrayList<>();
+        userClients.values().forEach(clients::addAll);
+        itemClients.values().forEach(clients::addAll);
+        for (Client client : clients) {
+            deliver(client, HEARTBEAT);
+        }
+    }
+
+    private void deliverAll(Set<Client> clients, Message message) {
+        if (clients != null) {
+            for (Client client : clients) {
+                deliver(client, message);
+            }
+        }
+    }
+
+    private void deliver(Client client, Message message) {
+        if (!client.queue.offer(message)) {
+            // 积压超过缓冲区：断开让客户端重连并重新拉取，而不是无限堆积
+            overflowCount.increment();
+            client.close();
+            return;
+        }
+        if (client.scheduled.compareAndSet(false, true)) {
+            senders.execute(client::drain);
+        }
+    }
+
+    private static final class Message {
+        final String name;
+        final Object data;
+
+        Message(String name, Object data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private final class Client {
+        final ConcurrentMap<Long, Set<Client>> registry;
+        final Long key;
+        final SseEmitter emitter;
+        final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(clientBuffer);
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        final AtomicBoolean removed = new AtomicBoolean();
+
+        Client(ConcurrentMap<Long, Set<Client>> registry, Long key, SseEmitter emitter) {
+            this.registry = registry;
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        /**
+         * 同一时刻只有一个发送线程在写该连接；写完后若又有新消息入队则继续
+         */
+        void drain() {
+            while (true) {
+                Message message;
+                while ((message = queue.poll()) != null) {
+                    if (removed.get()) {
+                        queue.clear();
+                        break;
+                    }
+                    try {
+                        if (message == HEARTBEAT) {
+                            emitter.send(SseEmitter.event().comment("heartbeat"));
+                        } else {
+                            emitter.send(SseEmitter.event().name(message.name).data(message.data, MediaType.APPLICATION_JSON));
+                            sentCount.increment();
+                        }
+                    } catch (IOException | IllegalStateException e) {
+                        // 客户端已断开
+                        close();
+                    }
+                }
+                scheduled.set(false);
+                if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            remove();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                logger.debug("EventStreamRegistry: emitter already completed");
+            }
+        }
+
+        void remove() {
+            if (removed.compareAndSet(false, true)) {
+                registry.computeIfPresent(key, (k, clients) -> {
+                    clients.remove(this);
+                    return clients.isEmpty() ? null : clients;
+                });
+                clientCount.decrementAndGet();
+            }
+        }
+    }
+}
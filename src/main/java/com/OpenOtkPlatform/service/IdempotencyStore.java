@@ -0,0 +1,49 @@
+package com.OpenOtkPlatform.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 下单幂等键去重 - 幂等键 -> 订单ID，按容量淘汰、写入后过期
+ * 仅作快速路径；过期或重启后由 orders.idempotency_key 唯一约束兜底
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final int MAX_KEY_LENGTH = 64;
+
+    @Value("${order.idempotency.max-size:100000}")
+    private long maxSize;
+
+    @Value("${order.idempotency.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private Cache<String, Long> orderIds;
+
+    @PostConstruct
+    public void init() {
+        orderIds = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .build();
+    }
+
+    public static boolean isValidKey(String key) {
+        return key != null && !key.isBlank() && key.length() <= MAX_KEY_LENGTH;
+    }
+
+    public Long getOrderId(String key) {
+        return key == null ? null : orderIds.getIfPresent(key);
+    }
+
+    public void remember(String key, Long orderId) {
+        if (key != null && orderId != null) {
+            orderIds.put(key, orderId);
+        }
+    }
+}
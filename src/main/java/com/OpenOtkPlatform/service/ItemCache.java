@@ -0,0 +1,151 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.domain.DomainEvent;
+import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.domain.ItemEvent;
+import com.OpenOtkPlatform.domain.ItemSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 商品读穿缓存 - Caffeine (W-TinyLFU) 按容量淘汰，写入后按 TTL 过期
+ * 单个商品返回副本，避免调用方修改共享实例；列表缓存的是不可变的摘要视图
+ * 列表失效时一并清空 CatalogResponseCache 中已编码的列表响应
+ * 写路径只在事务内同步剔除单个商品；提交后的再次剔除与列表失效由商品事件驱动，同一批事件只清空一次列表
+ */
+@Component
+public class ItemCache {
+
+    private static final String AVAILABLE_KEY = "available";
+
+    @Value("${item.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${item.cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private DomainEventBus eventBus;
+
+    private Cache<Long, Item> items;
+    private Cache<String, List<ItemSummary>> lists;
+
+    @PostConstruct
+    public void init() {
+        items = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        lists = Caffeine.newBuilder()
+            .maximumSize(16)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        eventBus.subscribe(DomainEventBus.SUBSCRIBER_CACHE, this::onEvents);
+    }
+
+    public Item get(Long itemId, Function<Long, Item> loader) {
+        Item cached = items.get(itemId, loader);
+        return cached == null ? null : copyOf(cached);
+    }
+
+    /**
+     * 批量读取：未命中的ID合并为一次 loader 调用，loader 未返回的ID不缓存也不出现在结果中
+     */
+    public Map<Long, Item> getAll(List<Long> itemIds, Function<List<Long>, Map<Long, Item>> loader) {
+        Map<Long, Item> cached = items.getAll(itemIds, missing -> loader.apply(new ArrayList<>(missing)));
+        Map<Long, Item> copies = new HashMap<>(cached.size() * 2);
+        cached.forEach((id, item) -> copies.put(id, copyOf(item)));
+        return copies;
+    }
+
+    public List<ItemSummary> getAvailable(Supplier<List<ItemSummary>> loader) {
+        return lists.get(AVAILABLE_KEY, key -> Collections.unmodifiableList(loader.get()));
+    }
+
+    /**
+     * 写路径上立即剔除单个商品，调用方须同时发布 ItemEvent
+     * 提交前并发读可能回填旧值，由事件处理时再剔除一次
+     */
+    public void invalidate(Long itemId) {
+        if (itemId != null) {
+            items.invalidate(itemId);
+        }
+    }
+
+    /**
+     * 缓存订阅者：剔除本批涉及的商品，列表与目录响应整体失效一次
+     */
+    void onEvents(List<DomainEvent> events) {
+        Set<Long> itemIds = new HashSet<>();
+        for (DomainEvent event : events) {
+            if (event instanceof ItemEvent item) {
+                itemIds.add(item.getItemId());
+            }
+        }
+        if (!itemIds.isEmpty()) {
+            items.invalidateAll(itemIds);
+            invalidateLists();
+        }
+    }
+
+    public void invalidateLists() {
+        lists.invalidateAll();
+        catalogResponseCache.invalidateAll();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("items", toMap(items.stats(), items.estimatedSize()));
+        result.put("lists", toMap(lists.stats(), lists.estimatedSize()));
+        result.put("responses", toMap(catalogResponseCache.stats(), catalogResponseCache.size()));
+        return result;
+    }
+
+    public CacheStats itemStats() {
+        return items.stats();
+    }
+
+    public CacheStats listStats() {
+        return lists.stats();
+    }
+
+    public long itemCount() {
+        return items.estimatedSize();
+    }
+
+    private static Map<String, Object> toMap(CacheStats stats, long size) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", size);
+        map.put("hits", stats.hitCount());
+        map.put("misses", stats.missCount());
+        map.put("evictions", stats.evictionCount());
+        map.put("hitRate", stats.hitRate());
+        return map;
+    }
+
+    private static Item copyOf(Item source) {
+        return new Item(source);
+    }
+}
@@ -0,0 +1,269 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.repository.ItemRepository;
+import com.OpenOtkPlatform.util.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品全文检索 - 内存倒排索引
+ * 拉丁字母/数字按词切分，中日韩文字按二元组切分；BM25 排序，查询末词支持前缀匹配
+ */
+@Component
+public class ItemSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 3;
+    private static final int REBUILD_BATCH = 1000;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private final Logger logger = Logger.getInstance();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (itemId -> 词频)，TreeMap 便于前缀范围查找
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Map<String, Integer>> docTerms = new HashMap<>();
+    private final Map<Long, Integer> docLengths = new HashMap<>();
+    private long totalLength;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docTerms.clear();
+            docLengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long lastId = 0L;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(REBUILD_BATCH));
+            for (Item item : batch) {
+                index(item);
+                lastId = item.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH);
+        ready = true;
+        logger.info("ItemSearchIndex rebuilt: " + size() + " items in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Item item) {
+        if (item == null || item.getId() == null) {
+            return;
+        }
+        Map<String, Integer> terms = new HashMap<>();
+        for (String token : tokenize(item.getName())) {
+            terms.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(item.getDescription())) {
+            terms.merge(token, 1, Integer::sum);
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(item.getId());
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(item.getId(), entry.getValue());
+                length += entry.getValue();
+            }
+            docTerms.put(item.getId(), terms);
+            docLengths.put(item.getId(), length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long itemId) {
+        if (itemId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 返回按相关度降序的商品ID，所有查询词都必须命中
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            int docCount = docTerms.size();
+            if (docCount == 0) {
+                return Collections.emptyList();
+            }
+            double avgLength = (double) totalLength / docCount;
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                boolean prefix = i == tokens.size() - 1
+                    || (isCjk(token.codePointAt(0)) && token.codePointCount(0, token.length()) == 1);
+                Map<String, Map<Long, Integer>> matched = prefix
+                    ? postings.subMap(token, true, token + Character.MAX_VALUE, false)
+                    : singleTerm(token);
+                Map<Long, Double> termScores = new HashMap<>();
+                for (Map<Long, Integer> docs : matched.values()) {
+                    double idf = Math.log(1 + (docCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                    for (Map.Entry<Long, Integer> doc : docs.entrySet()) {
+                        double tf = doc.getValue();
+                        double length = docLengths.getOrDefault(doc.getKey(), 0);
+                        double score = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+                        termScores.merge(doc.getKey(), score, Math::max);
+                    }
+                }
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Double> merged = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double score = termScores.get(entry.getKey());
+                        if (score != null) {
+                            merged.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            return topK(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String lower = text.toLowerCase();
+        StringBuilder word = new StringBuilder();
+        List<Integer> cjkRun = new ArrayList<>();
+        int i = 0;
+        while (i < lower.length()) {
+            int cp = lower.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isCjk(cp)) {
+                flushWord(word, tokens);
+                cjkRun.add(cp);
+            } else if (Character.isLetterOrDigit(cp)) {
+                flushCjk(cjkRun, tokens);
+                word.appendCodePoint(cp);
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjkRun, tokens);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjkRun, tokens);
+        return tokens;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (word.length() > 0) {
+            tokens.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(List<Integer> run, List<String> tokens) {
+        if (run.size() == 1) {
+            tokens.add(new String(Character.toChars(run.get(0))));
+        } else {
+            for (int j = 0; j + 1 < run.size(); j++) {
+                tokens.add(new StringBuilder().appendCodePoint(run.get(j)).appendCodePoint(run.get(j + 1)).toString());
+            }
+        }
+        run.clear();
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+            || script == Character.UnicodeScript.HIRAGANA
+            || script == Character.UnicodeScript.KATAKANA
+            || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private Map<String, Map<Long, Integer>> singleTerm(String token) {
+        Map<Long, Integer> docs = postings.get(token);
+        return docs == null ? Collections.emptyMap() : Collections.singletonMap(token, docs);
+    }
+
+    private void removeLocked(Long itemId) {
+        Map<String, Integer> terms = docTerms.remove(itemId);
+        if (terms == null) {
+            return;
+        }
+        totalLength -= docLengths.remove(itemId);
+        for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+            Map<Long, Integer> docs = postings.get(entry.getKey());
+            if (docs != null) {
+                docs.remove(itemId);
+                if (docs.isEmpty()) {
+                    postings.remove(entry.getKey());
+                }
+            }
+        }
+    }
+
+    private static List<Long> topK(Map<Long, Double> scores, int limit) {
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Long> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll().getKey());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+}
@@ -1,21 +1,53 @@
 package com.OpenOtkPlatform.service;
 
 import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.domain.ItemEvent;
+import com.OpenOtkPlatform.domain.ItemSummary;
+import com.OpenOtkPlatform.domain.MultiGetResult;
 import com.OpenOtkPlatform.repository.ItemRepository;
+import com.OpenOtkPlatform.util.IdListUtil;
+import com.OpenOtkPlatform.util.PageUtil;
 import com.OpenOtkPlatform.util.ValidationUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class ItemService {
     
+    public static final int MAX_SEARCH_RESULTS = 100;
+    public static final int MAX_BATCH_SIZE = 1000;
+    
     @Autowired
     private ItemRepository itemRepository;
     
-    public boolean publishItem(String name, String description, Double price, Long sellerId, Integer stock) {
+    @Autowired
+    private NdjsonExporter ndjsonExporter;
+    
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    
+    @Autowired
+    private ItemCache itemCache;
+    
+    @Autowired
+    private DomainEventBus eventBus;
+    
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    
+    public static boolean isValidItem(String name, String description, Double price, Long sellerId, Integer stock) {
         if (name == null || name.trim().isEmpty()
             || description == null || description.trim().isEmpty()
             || price == null || price <= 0
@@ -25,54 +57,154 @@ public class ItemService {
             return false;
         }
 
-        if (!ValidationUtil.isValidItemName(name)
-            || !ValidationUtil.isValidItemDescription(description)
-            || !ValidationUtil.isValidPrice(price)
-            || !ValidationUtil.isValidStock(stock)
-        ) {
-            return false;
+        return ValidationUtil.isValidItemName(name)
+            && ValidationUtil.isValidItemDescription(description)
+            && ValidationUtil.isValidPrice(price)
+            && ValidationUtil.isValidStock(stock);
+    }
+    
+    // 返回已保存的商品（含生成的ID），失败返回 null
+    public Item publishItem(String name, String description, Double price, Long sellerId, Integer stock) {
+        if (!isValidItem(name, description, price, sellerId, stock)) {
+            return null;
         }
         
         Item newItem = new Item(name, description, price, sellerId, stock);
         try {
-            itemRepository.save(newItem);
-            return true;
+            Item savedItem = itemRepository.save(newItem);
+            itemSearchIndex.index(savedItem);
+            eventBus.publish(new ItemEvent(ItemEvent.Type.PUBLISHED, savedItem.getId(), sellerId));
+            return savedItem;
         } catch (Exception e) {
-            return false;
+            return null;
+        }
+    }
+    
+    /**
+     * 批量上架：调用方负责逐条校验；saveAll 在单个事务内完成，提交时合并为批量 INSERT
+     * 全部成功返回已保存的商品（顺序与入参一致），失败整批回滚并返回 null
+     */
+    public List<Item> publishItems(List<Item> newItems) {
+        if (newItems == null || newItems.isEmpty() || newItems.size() > MAX_BATCH_SIZE) {
+            return null;
+        }
+        
+        List<Item> savedItems;
+        try {
+            savedItems = itemRepository.saveAll(newItems);
+        } catch (Exception e) {
+            return null;
+        }
+        for (Item item : savedItems) {
+            itemSearchIndex.index(item);
+            eventBus.publish(new ItemEvent(ItemEvent.Type.PUBLISHED, item.getId(), item.getSellerId()));
         }
+        return savedItems;
     }
     
+    @Transactional(readOnly = true)
     public Item getItemById(Long itemId) {
         if (itemId == null || itemId <= 0) {
             return null;
         }
-        return itemRepository.findById(itemId).orElse(null);
+        return itemCache.get(itemId, id -> itemRepository.findById(id).orElse(null));
     }
     
-    public List<Item> getAllItems() {
-        return itemRepository.findByAvailableTrue();
+    /**
+     * 批量按ID查询，先查缓存，未命中的按 IN 列表分块查库；ids 须已去重
+     */
+    @Transactional(readOnly = true)
+    public MultiGetResult<Item> getItemsByIds(List<Long> ids) {
+        Map<Long, Item> loaded = itemCache.getAll(ids, missing -> {
+            Map<Long, Item> found = new HashMap<>();
+            for (List<Long> chunk : IdListUtil.partition(missing, IdListUtil.IN_CHUNK_SIZE)) {
+                for (Item item : itemRepository.findAllById(chunk)) {
+                    found.put(item.getId(), item);
+                }
+            }
+            return found;
+        });
+        return MultiGetResult.of(ids, loaded);
+    }
+    
+    // 列表接口只返回摘要视图，不加载完整描述
+    public List<ItemSummary> getAllItems() {
+        return itemCache.getAvailable(() -> itemRepository.findAvailableSummaries());
+    }
+    
+    public List<ItemSummary> getItemsAfter(Long lastId, Integer limit) {
+        return itemRepository.findAvailableSummariesAfter(
+            lastId == null || lastId < 0 ? 0L : lastId, Limit.of(PageUtil.clampPageSize(limit)));
+    }
+    
+    @Transactional(readOnly = true)
+    public long exportItems(OutputStream out) throws IOException {
+        try (Stream<Item> items = itemRepository.streamAvailable()) {
+            return ndjsonExporter.write(items, out);
+        }
     }
     
-    public List<Item> getItemsBySeller(Long sellerId) {
+    public List<ItemSummary> getItemsBySeller(Long sellerId) {
         if (sellerId == null || sellerId <= 0) {
             return null;
         }
-        return itemRepository.findBySellerId(sellerId);
+        return itemRepository.findSummariesBySellerId(sellerId);
     }
     
-    public List<Item> searchItems(String keyword) {
+    public List<ItemSummary> searchItems(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
             return getAllItems();
         }
-        return itemRepository.searchItems(keyword);
+        // 索引重建完成前回退到数据库 LIKE 查询
+        if (!itemSearchIndex.isReady()) {
+            return itemRepository.searchSummaries(keyword);
+        }
+        
+        List<Long> rankedIds = itemSearchIndex.search(keyword, MAX_SEARCH_RESULTS);
+        if (rankedIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ItemSummary> itemsById = new HashMap<>();
+        for (ItemSummary item : itemRepository.findSummariesByIdIn(rankedIds)) {
+            itemsById.put(item.getId(), item);
+        }
+        List<ItemSummary> result = new ArrayList<>(rankedIds.size());
+        for (Long id : rankedIds) {
+            ItemSummary item = itemsById.get(id);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
     }
     
+    /**
+     * 更新名称 / 描述 / 单价；库存只能通过 reduceStock / increaseStock 增减，不从传入对象复制
+     * 传入对象的版本号必须与库中一致（副本取出后商品被改过则返回 false，由调用方重新读取后再改）
+     */
     public boolean updateItem(Item item) {
         if (item == null || item.getId() == null) {
             return false;
         }
+        // 写入期间被并发修改时由重试重新加载，版本已变同样按冲突失败，冲突计入乐观锁指标
         try {
-            itemRepository.save(item);
+            Item saved = optimisticRetry.execute(OptimisticRetry.ITEM, item.getId(), () -> {
+                Optional<Item> itemOpt = itemRepository.findById(item.getId());
+                if (!itemOpt.isPresent() || itemOpt.get().getVersion() != item.getVersion()) {
+                    return null;
+                }
+                Item managed = itemOpt.get();
+                managed.setName(item.getName());
+                managed.setDescription(item.getDescription());
+                managed.setPrice(item.getPrice());
+                return itemRepository.save(managed);
+            });
+            if (saved == null) {
+                return false;
+            }
+            itemSearchIndex.index(saved);
+            itemCache.invalidate(saved.getId());
+            eventBus.publish(new ItemEvent(ItemEvent.Type.UPDATED, saved.getId(), saved.getSellerId()));
             return true;
         } catch (Exception e) {
             return false;
@@ -85,6 +217,9 @@ public class ItemService {
         }
         try {
             itemRepository.deleteById(itemId);
+            itemSearchIndex.remove(itemId);
+            itemCache.invalidate(itemId);
+            eventBus.publish(new ItemEvent(ItemEvent.Type.DELETED, itemId, null));
             return true;
         } catch (Exception e) {
             return false;
@@ -96,21 +231,17 @@ public class ItemService {
             return false;
         }
         
-        Optional<Item> itemOpt = itemRepository.findById(itemId);
-        if (!itemOpt.isPresent() || !itemOpt.get().isInStock() || itemOpt.get().getStock() < quantity) {
-            return false;
-        }
-        
-        Item item = itemOpt.get();
-        if (item.reduceStock(quantity)) {
-            try {
-                itemRepository.save(item);
-                return true;
-            } catch (Exception e) {
-                return false;
+        // 单条件更新语句完成校验与扣减，并发下不会超卖
+        try {
+            boolean reduced = itemRepository.reduceStockIfAvailable(itemId, quantity, new Date()) == 1;
+            if (reduced) {
+                itemCache.invalidate(itemId);
+                eventBus.publish(ItemEvent.stockChanged(itemId));
             }
+            return reduced;
+        } catch (Exception e) {
+            return false;
         }
-        return false;
     }
     
     public boolean increaseStock(Long itemId, Integer quantity) {
@@ -118,16 +249,13 @@ public class ItemService {
             return false;
         }
         
-        Optional<Item> itemOpt = itemRepository.findById(itemId);
-        if (!itemOpt.isPresent()) {
-            return false;
-        }
-        
-        Item item = itemOpt.get();
-        item.increaseStock(quantity);
         try {
-            itemRepository.save(item);
-            return true;
+            boolean increased = itemRepository.increaseStock(itemId, quantity, new Date()) == 1;
+            if (increased) {
+                itemCache.invalidate(itemId);
+                eventBus.publish(ItemEvent.stockChanged(itemId));
+            }
+            return increased;
         } catch (Exception e) {
             return false;
         }
@@ -138,7 +266,7 @@ public class ItemService {
             return false;
         }
         
-        Optional<Item> itemOpt = itemRepository.findById(itemId);
-        return itemOpt.isPresent() && itemOpt.get().isInStock();
+        Item item = getItemById(itemId);
+        return item != null && item.isInStock();
     }
 }
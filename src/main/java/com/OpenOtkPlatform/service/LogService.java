@@ -1,13 +1,26 @@
 package com.OpenOtkPlatform.service;
 
+import com.OpenOtkPlatform.domain.DomainEvent;
+import com.OpenOtkPlatform.domain.ItemEvent;
+import com.OpenOtkPlatform.domain.Order;
+import com.OpenOtkPlatform.domain.OrderEvent;
 import com.OpenOtkPlatform.domain.SystemLog;
+import com.OpenOtkPlatform.domain.UserEvent;
 import com.OpenOtkPlatform.repository.SystemLogRepository;
 import com.OpenOtkPlatform.util.Logger;
+import com.OpenOtkPlatform.util.PageUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class LogService {
@@ -15,8 +28,55 @@ public class LogService {
     @Autowired
     private SystemLogRepository systemLogRepository;
 
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private NdjsonExporter ndjsonExporter;
+
+    @Autowired
+    private DomainEventBus eventBus;
+
     private Logger logger = Logger.getInstance();
 
+    @PostConstruct
+    public void subscribe() {
+        eventBus.subscribe(DomainEventBus.SUBSCRIBER_AUDIT, this::onEvents);
+    }
+
+    // 在 AuditLogWriter 停止前处理完已发布的事件
+    @PreDestroy
+    public void unsubscribe() {
+        eventBus.unsubscribe(DomainEventBus.SUBSCRIBER_AUDIT);
+    }
+
+    /**
+     * 审计订阅者：把业务事件转为操作日志
+     * 下单审计随下单事务同步写入，这里不重复记录；商品修改、库存变化与直接改状态不记审计
+     */
+    void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof OrderEvent order) {
+                switch (order.getType()) {
+                    case CONFIRMED -> logOrderConfirm(order.getSellerId(), order.getOrderId());
+                    case COMPLETED -> logOrderComplete(order.getBuyerId(), order.getOrderId());
+                    case CANCELLED, EXPIRED -> logOrderCancel(order.getBuyerId(), order.getOrderId());
+                    default -> { }
+                }
+            } else if (event instanceof ItemEvent item) {
+                if (item.getType() == ItemEvent.Type.PUBLISHED) {
+                    logItemPublish(item.getSellerId(), item.getItemId());
+                }
+            } else if (event instanceof UserEvent user) {
+                switch (user.getType()) {
+                    case REGISTERED -> logRegister(user.getUserId());
+                    case LOGGED_IN -> logLogin(user.getUserId());
+                    case LOGGED_OUT -> logLogout(user.getUserId());
+                }
+            }
+        }
+    }
+
     private void logUserOperation(String operationType, Long userId, String description) {
         if (operationType == null || operationType.trim().isEmpty()
             || (userId != null && userId <= 0)
@@ -24,11 +84,10 @@ public class LogService {
             return;
         }
 
-        SystemLog log = new SystemLog(operationType, userId, description);
-        systemLogRepository.save(log);
+        // 入队后由 AuditLogWriter 批量落库，不占用请求线程
+        auditLogWriter.submit(new SystemLog(operationType, userId, description));
 
-        logger.info(String.format("logUserOperation: [%s], userId: %d, %s",
-                operationType, userId, description));
+        logger.info(() -> "logUserOperation: [" + operationType + "], userId: " + userId + ", " + description);
     }
 
     // private void logSystemEvent(String operationType, String description) {
@@ -45,17 +104,17 @@ public class LogService {
 
     public void logRegister(Long userId) {
         logUserOperation(SystemLog.AUTH_OPERATION_REGISTER, userId,
-                String.format("User Register: %d", userId));
+                "User Register: " + userId);
     }
 
     public void logLogin(Long userId) {
         logUserOperation(SystemLog.AUTH_OPERATION_LOGIN, userId,
-                String.format("User Login: %d", userId));
+                "User Login: " + userId);
     }
 
     public void logLogout(Long userId) {
         logUserOperation(SystemLog.AUTH_OPERATION_LOGOUT, userId,
-                String.format("User Logout: %d", userId));
+                "User Logout: " + userId);
     }
 
     // public void logUserDelete(Long userId) {
@@ -77,12 +136,12 @@ public class LogService {
 
     public void logItemPublish(Long userId, Long itemId) {
         logUserOperation(SystemLog.ITEM_OPERATION_PUBLISH, userId,
-                String.format("itemId: %d", itemId));
+                "itemId: " + itemId);
     }
 
     public void logItemUpdate(Long userId, Long itemId, String description) {
         logUserOperation(SystemLog.ITEM_OPERATION_UPDATE, userId,
-                String.format("itemId: %d, description: %s", itemId, description));
+                "itemId: " + itemId + ", description: " + description);
     }
 
     // public void logItemDelete(Long userId, Long itemId) {
@@ -92,22 +151,39 @@ public class LogService {
 
     public void logOrderCreate(Long userId, Long orderId) {
         logUserOperation(SystemLog.ORDER_OPERATION_CREATE, userId,
-                String.format("orderId: %d", orderId));
+                "orderId: " + orderId);
+    }
+
+    // 同步写入，随调用方事务一起提交
+    public void logOrderCreateInTransaction(Long userId, Long orderId) {
+        if (userId == null || userId <= 0 || orderId == null) {
+            return;
+        }
+        systemLogRepository.save(new SystemLog(SystemLog.ORDER_OPERATION_CREATE, userId, "orderId: " + orderId));
+    }
+
+    // 批量下单：一条批量 INSERT 写入全部审计行，随调用方事务一起提交
+    public void logOrderCreateBatchInTransaction(List<Order> orders) {
+        List<SystemLog> logs = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            logs.add(new SystemLog(SystemLog.ORDER_OPERATION_CREATE, order.getBuyerId(), "orderId: " + order.getId()));
+        }
+        auditLogWriter.insertBatch(logs);
     }
 
     public void logOrderConfirm(Long userId, Long orderId) {
         logUserOperation(SystemLog.ORDER_OPERATION_CONFIRM, userId,
-                String.format("orderId: %d", orderId));
+                "orderId: " + orderId);
     }
 
     public void logOrderComplete(Long userId, Long orderId) {
         logUserOperation(SystemLog.ORDER_OPERATION_COMPLETE, userId,
-                String.format("orderId: %d", orderId));
+                "orderId: " + orderId);
     }
 
     public void logOrderCancel(Long userId, Long orderId) {
         logUserOperation(SystemLog.ORDER_OPERATION_CANCEL, userId,
-                String.format("orderId: %d", orderId));
+                "orderId: " + orderId);
     }
 
     // public void logOrderUpdate(Long userId, Long orderId, String status) {
@@ -148,6 +224,18 @@ public class LogService {
         return systemLogRepository.findAll();
     }
 
+    public List<SystemLog> getLogsAfter(Long lastId, Integer limit) {
+        return systemLogRepository.findByIdGreaterThanOrderByIdAsc(
+            lastId == null || lastId < 0 ? 0L : lastId, Limit.of(PageUtil.clampPageSize(limit)));
+    }
+
+    @Transactional(readOnly = true)
+    public long exportLogs(OutputStream out) throws IOException {
+        try (Stream<SystemLog> logs = systemLogRepository.streamAll()) {
+            return ndjsonExporter.write(logs, out);
+        }
+    }
+
     public boolean deleteLog(Long logId) {
         if (logId == null || logId <= 0) {
             return false;
@@ -0,0 +1,183 @@
+package com.OpenOtkPlatform.service;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 指标注册表 - 计数器、仪表与 HDR 直方图，按 Prometheus 文本格式导出
+ * 指标对象应在初始化时取得并缓存，记录路径（increment / record）不分配对象
+ */
+@Component
+public class MetricsRegistry {
+
+    public static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+    // 两位有效数字（1% 误差），每个直方图约二十 KB
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+    public LongAdder counter(String name, String help, String labels) {
+        return (LongAdder) family(name, help, "counter").children.computeIfAbsent(labels, k -> new LongAdder());
+    }
+
+    /**
+     * 由组件自身维护的单调计数（如缓存命中数），导出时读取
+     */
+    public void counter(String name, String help, String labels, DoubleSupplier supplier) {
+        family(name, help, "counter").children.put(labels, supplier);
+    }
+
+    public void gauge(String name, String help, String labels, DoubleSupplier supplier) {
+        family(name, help, "gauge").children.put(labels, supplier);
+    }
+
+    /**
+     * 纳秒级延迟直方图，分辨率 1 微秒，导出单位为秒
+     */
+    public Summary latency(String name, String help, String labels) {
+        return (Summary) family(name, help, "summary").children
+            .computeIfAbsent(labels, k -> new Summary(TimeUnit.MICROSECONDS.toNanos(1), MAX_LATENCY_NANOS, 1e9));
+    }
+
+    /**
+     * 数量分布直方图（如单次请求的仓库调用次数），按原值导出
+     */
+    public Summary distribution(String name, String help, String labels, long maxValue) {
+        return (Summary) family(name, help, "summary").children
+            .computeIfAbsent(labels, k -> new Summary(1, maxValue, 1.0));
+    }
+
+    public static String labels(String... pairs) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(pairs[i]).append("=\"").append(escape(pairs[i + 1])).append('"');
+        }
+        return sb.toString();
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : new TreeMap<>(families).values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> child : new TreeMap<>(family.children).entrySet()) {
+                writeChild(out, family.name, child.getKey(), child.getValue());
+            }
+        }
+        return out.toString();
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, k -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " already registered as " + family.type);
+        }
+        return family;
+    }
+
+    private static void writeChild(StringBuilder out, String name, String labels, Object metric) {
+        if (metric instanceof LongAdder) {
+            sample(out, name, labels, null, ((LongAdder) metric).sum());
+        } else if (metric instanceof DoubleSupplier) {
+            sample(out, name, labels, null, ((DoubleSupplier) metric).getAsDouble());
+        } else if (metric instanceof Summary) {
+            Summary summary = (Summary) metric;
+            Histogram snapshot = summary.snapshot();
+            for (double quantile : QUANTILES) {
+                String quantileLabel = "quantile=\"" + quantile + "\"";
+                sample(out, name, labels, quantileLabel, snapshot.getValueAtPercentile(quantile * 100) / summary.unit);
+            }
+            sample(out, name + "_sum", labels, null, snapshot.getMean() * snapshot.getTotalCount() / summary.unit);
+            sample(out, name + "_count", labels, null, snapshot.getTotalCount());
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, String extra, double value) {
+        out.append(name);
+        boolean hasLabels = labels != null && !labels.isEmpty();
+        if (hasLabels || extra != null) {
+            out.append('{');
+            if (hasLabels) {
+                out.append(labels);
+            }
+            if (extra != null) {
+                out.append(hasLabels ? "," : "").append(extra);
+            }
+            out.append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final ConcurrentMap<String, Object> children = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    /**
+     * 基于 HdrHistogram Recorder 的直方图，记录为无等待操作
+     * 导出时取区间直方图并累加到总量中
+     */
+    public static final class Summary {
+        private final Recorder recorder;
+        private final Histogram total;
+        private final ReentrantLock snapshotLock = new ReentrantLock();
+        private final long maxValue;
+        // 导出时的除数，如纳秒转秒为 1e9
+        private final double unit;
+        private Histogram interval;
+
+        private Summary(long lowestValue, long maxValue, double unit) {
+            this.recorder = new Recorder(lowestValue, maxValue, SIGNIFICANT_DIGITS);
+            this.total = new Histogram(lowestValue, maxValue, SIGNIFICANT_DIGITS);
+            this.maxValue = maxValue;
+            this.unit = unit;
+        }
+
+        public void record(long value) {
+            recorder.recordValue(value < 0 ? 0 : Math.min(value, maxValue));
+        }
+
+        public Histogram snapshot() {
+            snapshotLock.lock();
+            try {
+                interval = recorder.getIntervalHistogram(interval);
+                total.add(interval);
+                return total.copy();
+            } finally {
+                snapshotLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.OpenOtkPlatform.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * NDJSON 导出工具 - 逐行序列化并从持久化上下文中分离实体，内存占用与结果集大小无关
+ * 调用方须处于只读事务中
+ */
+@Component
+public class NdjsonExporter {
+
+    private static final int FLUSH_EVERY = 500;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public long write(Stream<?> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Iterator<?> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            Object row = iterator.next();
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write('\n');
+            entityManager.detach(row);
+            if (++count % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
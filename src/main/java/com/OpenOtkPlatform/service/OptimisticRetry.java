@@ -0,0 +1,156 @@
+package com.OpenOtkPlatform.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 乐观锁冲突重试
+ * 每次尝试在新事务中重新读取并修改实体，版本冲突时按指数退避 + 随机抖动重试，次数有上限
+ * 冲突按实体类型计数导出到 Prometheus，并记录冲突最多的实体ID
+ */
+@Component
+public class OptimisticRetry {
+
+    public static final String ITEM = "item";
+    public static final String ORDER = "order";
+    public static final String USER = "user";
+
+    // 每类实体最多跟踪的热点ID数，按访问频率淘汰
+    private static final int HOT_KEY_CAPACITY = 1000;
+
+    @Value("${optimistic.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${optimistic.retry.backoff-ms:10}")
+    private long backoffMs;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<String, EntityStats> statsByEntity = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        for (String entity : new String[] {ITEM, ORDER, USER}) {
+            stats(entity);
+        }
+    }
+
+    /**
+     * 在独立事务中执行 action，版本冲突时重试；重试耗尽抛出最后一次冲突异常
+     * 已处于外层事务时只执行一次（持久化上下文中是旧实体，重试没有意义），冲突交给外层处理
+     */
+    public <T> T execute(String entity, Long id, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        EntityStats stats = stats(entity);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                stats.recordConflict(id);
+                if (attempt >= maxAttempts) {
+                    stats.exhausted.increment();
+                    throw e;
+                }
+                if (!backoff(attempt)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 各类实体冲突次数最多的前 limit 个ID
+     */
+    public Map<String, List<HotKey>> getHotKeys(int limit) {
+        Map<String, List<HotKey>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, EntityStats> entry : statsByEntity.entrySet()) {
+            List<HotKey> keys = new ArrayList<>();
+            entry.getValue().conflictsById.asMap()
+                .forEach((id, count) -> keys.add(new HotKey(id, count.sum())));
+            keys.sort(Comparator.comparingLong(HotKey::getConflicts).reversed());
+            result.put(entry.getKey(), keys.size() > limit ? new ArrayList<>(keys.subList(0, limit)) : keys);
+        }
+        return result;
+    }
+
+    // 全抖动退避：[0, backoffMs * 2^(attempt-1)]
+    private boolean backoff(int attempt) {
+        long cap = backoffMs << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private EntityStats stats(String entity) {
+        return statsByEntity.computeIfAbsent(entity, e -> new EntityStats(
+            metricsRegistry.counter("otk_optimistic_lock_conflicts_total",
+                "Optimistic lock version conflicts", MetricsRegistry.labels("entity", e)),
+            metricsRegistry.counter("otk_optimistic_lock_retries_exhausted_total",
+                "Updates that still conflicted after the last retry", MetricsRegistry.labels("entity", e))));
+    }
+
+    private static final class EntityStats {
+        final LongAdder conflicts;
+        final LongAdder exhausted;
+        final Cache<Long, LongAdder> conflictsById = Caffeine.newBuilder()
+            .maximumSize(HOT_KEY_CAPACITY)
+            .build();
+
+        EntityStats(LongAdder conflicts, LongAdder exhausted) {
+            this.conflicts = conflicts;
+            this.exhausted = exhausted;
+        }
+
+        void recordConflict(Long id) {
+            conflicts.increment();
+            if (id != null) {
+                conflictsById.get(id, k -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    public static class HotKey {
+        private final Long id;
+        private final long conflicts;
+
+        public HotKey(Long id, long conflicts) {
+            this.id = id;
+            this.conflicts = conflicts;
+        }
+
+        public Long getId() { return id; }
+        public long getConflicts() { return conflicts; }
+    }
+}
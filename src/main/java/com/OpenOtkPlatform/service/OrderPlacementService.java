@@ -0,0 +1,268 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.domain.BalanceEntry;
+import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.domain.ItemEvent;
+import com.OpenOtkPlatform.domain.Order;
+import com.OpenOtkPlatform.domain.OrderEvent;
+import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.repository.ItemRepository;
+import com.OpenOtkPlatform.repository.OrderRepository;
+import com.OpenOtkPlatform.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 下单流程 - 单事务完成建单、扣库存、余额转账与审计
+ * 加锁顺序固定为：商品 -> 买家（按ID升序）；卖家入账只追加账本流水，不锁卖家行
+ */
+@Service
+public class OrderPlacementService {
+
+    public static final int MAX_BATCH_SIZE = 500;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LogService logService;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private DomainEventBus eventBus;
+
+    @Autowired
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Transactional
+    public PlacementResult placeOrder(Long itemId, Long buyerId, Long sellerId, Long quantity, Double totalPrice) {
+        return placeOrder(itemId, buyerId, sellerId, quantity, totalPrice, null);
+    }
+
+    /**
+     * idempotencyKey 非空时随订单落库；重复键会触发唯一约束，整笔事务回滚
+     */
+    @Transactional
+    public PlacementResult placeOrder(Long itemId, Long buyerId, Long sellerId, Long quantity, Double totalPrice,
+                                      String idempotencyKey) {
+        if (itemId == null || itemId <= 0
+            || buyerId == null || buyerId <= 0
+            || sellerId == null || sellerId <= 0
+            || quantity == null || quantity <= 0 || quantity > Integer.MAX_VALUE
+            || totalPrice == null || totalPrice <= 0
+            || buyerId.equals(sellerId)
+        ) {
+            return PlacementResult.of(Outcome.INVALID);
+        }
+
+        Item item = itemRepository.findByIdForUpdate(itemId).orElse(null);
+        if (item == null || !sellerId.equals(item.getSellerId()) || !matchesItemPrice(item, quantity, totalPrice)) {
+            return PlacementResult.of(Outcome.INVALID);
+        }
+        if (!item.isInStock() || item.getStock() < quantity) {
+            return PlacementResult.of(Outcome.OUT_OF_STOCK);
+        }
+
+        List<User> users = userRepository.findAllByIdForUpdate(List.of(buyerId));
+        if (users.isEmpty() || !userRepository.existsById(sellerId)) {
+            return PlacementResult.of(Outcome.INVALID);
+        }
+        BalanceEntry debit = balanceLedger.debit(users.get(0), totalPrice, BalanceEntry.REASON_ORDER, null);
+        if (debit == null) {
+            return PlacementResult.of(Outcome.INSUFFICIENT_BALANCE);
+        }
+
+        // 实体均已托管，提交时统一刷写
+        item.reduceStock(quantity.intValue());
+        itemCache.invalidate(itemId);
+        Order newOrder = new Order(itemId, buyerId, sellerId, quantity, totalPrice);
+        newOrder.setIdempotencyKey(idempotencyKey);
+        newOrder.setReservedUntil(stockReservationService.newDeadline());
+        Order savedOrder = orderRepository.save(newOrder);
+        stockReservationService.schedule(savedOrder);
+        debit.setRefId(savedOrder.getId());
+        balanceLedger.credit(sellerId, totalPrice, BalanceEntry.REASON_ORDER, savedOrder.getId());
+        logService.logOrderCreateInTransaction(buyerId, savedOrder.getId());
+        eventBus.publish(OrderEvent.created(savedOrder));
+        eventBus.publish(ItemEvent.stockChanged(itemId));
+
+        return new PlacementResult(Outcome.SUCCESS, savedOrder);
+    }
+
+    /**
+     * 批量下单：单事务内一次锁住涉及的全部商品与买家（同样按 商品 -> 买家、ID升序），
+     * 逐条判定结果；失败条目不影响其他条目。订单与审计行均以 JDBC 批量插入
+     * 返回结果与入参一一对应
+     */
+    @Transactional
+    public List<PlacementResult> placeOrders(List<PlacementRequest> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            return null;
+        }
+        List<PlacementResult> results = new ArrayList<>(requests.size());
+        Set<Long> itemIds = new TreeSet<>();
+        Set<Long> buyerIds = new TreeSet<>();
+        Set<Long> sellerIds = new HashSet<>();
+        for (PlacementRequest request : requests) {
+            if (request != null && request.isValid()) {
+                itemIds.add(request.getItemId());
+                buyerIds.add(request.getBuyerId());
+                sellerIds.add(request.getSellerId());
+            }
+        }
+
+        Map<Long, Item> items = new HashMap<>();
+        Map<Long, User> buyers = new HashMap<>();
+        Set<Long> existingSellerIds = new HashSet<>();
+        if (!itemIds.isEmpty()) {
+            for (Item item : itemRepository.findAllByIdForUpdate(itemIds)) {
+                items.put(item.getId(), item);
+            }
+            for (User user : userRepository.findAllByIdForUpdate(buyerIds)) {
+                buyers.put(user.getId(), user);
+            }
+            for (User user : userRepository.findAllById(sellerIds)) {
+                existingSellerIds.add(user.getId());
+            }
+        }
+
+        List<Order> newOrders = new ArrayList<>();
+        Date reservedUntil = stockReservationService.newDeadline();
+        for (PlacementRequest request : requests) {
+            if (request == null || !request.isValid()) {
+                results.add(PlacementResult.of(Outcome.INVALID));
+                continue;
+            }
+            Item item = items.get(request.getItemId());
+            User buyer = buyers.get(request.getBuyerId());
+            if (item == null || buyer == null || !existingSellerIds.contains(request.getSellerId())
+                || !request.getSellerId().equals(item.getSellerId())
+                || !matchesItemPrice(item, request.getQuantity(), request.getTotalPrice())) {
+                results.add(PlacementResult.of(Outcome.INVALID));
+                continue;
+            }
+            long quantity = request.getQuantity();
+            if (!item.isInStock() || item.getStock() < quantity) {
+                results.add(PlacementResult.of(Outcome.OUT_OF_STOCK));
+                continue;
+            }
+            BalanceEntry debit = balanceLedger.debit(buyer, request.getTotalPrice(), BalanceEntry.REASON_ORDER, null);
+            if (debit == null) {
+                results.add(PlacementResult.of(Outcome.INSUFFICIENT_BALANCE));
+                continue;
+            }
+
+            item.reduceStock((int) quantity);
+            // 号段主键在 persist 时即分配，INSERT 延迟到提交时批量执行
+            Order newOrder = new Order(request.getItemId(), request.getBuyerId(), request.getSellerId(),
+                request.getQuantity(), request.getTotalPrice());
+            newOrder.setReservedUntil(reservedUntil);
+            orderRepository.save(newOrder);
+            stockReservationService.schedule(newOrder);
+            debit.setRefId(newOrder.getId());
+            balanceLedger.credit(request.getSellerId(), request.getTotalPrice(), BalanceEntry.REASON_ORDER,
+                newOrder.getId());
+            newOrders.add(newOrder);
+            results.add(new PlacementResult(Outcome.SUCCESS, newOrder));
+        }
+
+        if (!newOrders.isEmpty()) {
+            logService.logOrderCreateBatchInTransaction(newOrders);
+            Set<Long> changedItemIds = new TreeSet<>();
+            for (Order order : newOrders) {
+                eventBus.publish(OrderEvent.created(order));
+                changedItemIds.add(order.getItemId());
+            }
+            for (Long itemId : changedItemIds) {
+                itemCache.invalidate(itemId);
+                eventBus.publish(ItemEvent.stockChanged(itemId));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 客户端传入的总价只做核对：必须等于已加锁商品行的单价 × 数量（按分比较），否则按参数无效拒绝
+     */
+    static boolean matchesItemPrice(Item item, long quantity, Double totalPrice) {
+        return item.getPrice() != null
+            && Math.round(item.getPrice() * 100) * quantity == Math.round(totalPrice * 100);
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        INVALID,
+        OUT_OF_STOCK,
+        INSUFFICIENT_BALANCE
+    }
+
+    public static class PlacementRequest {
+        private final Long itemId;
+        private final Long buyerId;
+        private final Long sellerId;
+        private final Long quantity;
+        private final Double totalPrice;
+
+        public PlacementRequest(Long itemId, Long buyerId, Long sellerId, Long quantity, Double totalPrice) {
+            this.itemId = itemId;
+            this.buyerId = buyerId;
+            this.sellerId = sellerId;
+            this.quantity = quantity;
+            this.totalPrice = totalPrice;
+        }
+
+        boolean isValid() {
+            return itemId != null && itemId > 0
+                && buyerId != null && buyerId > 0
+                && sellerId != null && sellerId > 0
+                && quantity != null && quantity > 0 && quantity <= Integer.MAX_VALUE
+                && totalPrice != null && totalPrice > 0
+                && !buyerId.equals(sellerId);
+        }
+
+        public Long getItemId() { return itemId; }
+        public Long getBuyerId() { return buyerId; }
+        public Long getSellerId() { return sellerId; }
+        public Long getQuantity() { return quantity; }
+        public Double getTotalPrice() { return totalPrice; }
+    }
+
+    public static class PlacementResult {
+        private final Outcome outcome;
+        private final Order order;
+
+        public PlacementResult(Outcome outcome, Order order) {
+            this.outcome = outcome;
+            this.order = order;
+        }
+
+        static PlacementResult of(Outcome outcome) {
+            return new PlacementResult(outcome, null);
+        }
+
+        public Outcome getOutcome() { return outcome; }
+        public Order getOrder() { return order; }
+        public boolean isSuccess() { return outcome == Outcome.SUCCESS; }
+    }
+}
@@ -1,12 +1,24 @@
 package com.OpenOtkPlatform.service;
 
+import com.OpenOtkPlatform.domain.BalanceEntry;
 import com.OpenOtkPlatform.domain.Order;
+import com.OpenOtkPlatform.domain.OrderDetail;
+import com.OpenOtkPlatform.domain.OrderEvent;
+import com.OpenOtkPlatform.domain.OrderSummary;
 import com.OpenOtkPlatform.repository.OrderRepository;
+import com.OpenOtkPlatform.repository.UserRepository;
+import com.OpenOtkPlatform.util.Logger;
+import com.OpenOtkPlatform.util.PageUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
@@ -18,42 +30,95 @@ public class OrderService {
     private ItemService itemService;
     
     @Autowired
-    private UserService userService;
+    private NdjsonExporter ndjsonExporter;
     
-    public Order createOrder(Long itemId, Long buyerId, Long sellerId, Long quantity, Double totalPrice) {
-        if (!validateOrderCreation(itemId, buyerId, sellerId, quantity)) {
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private BalanceLedger balanceLedger;
+    
+    @Autowired
+    private DomainEventBus eventBus;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    
+    @Autowired
+    private StockReservationService stockReservationService;
+    
+    private final Logger logger = Logger.getInstance();
+    
+    @Transactional(readOnly = true)
+    public Order getOrderById(Long orderId) {
+        if (orderId == null || orderId <= 0) {
             return null;
         }
-        
-        Order newOrder = new Order(itemId, buyerId, sellerId, quantity, totalPrice);
-        try {
-            Order savedOrder = orderRepository.save(newOrder);
-            itemService.reduceStock(itemId, quantity.intValue());
-            return savedOrder;
-        } catch (Exception e) {
+        return orderRepository.findById(orderId).orElse(null);
+    }
+    
+    /**
+     * 只查内存去重表，未命中不访问数据库（新键的常规路径）
+     */
+    public Order getRememberedOrder(String idempotencyKey) {
+        Long orderId = idempotencyStore.getOrderId(idempotencyKey);
+        return orderId == null ? null : orderRepository.findById(orderId).orElse(null);
+    }
+    
+    /**
+     * 按幂等键查找已创建的订单：先查内存去重表，未命中再查唯一索引
+     */
+    public Order getOrderByIdempotencyKey(String idempotencyKey) {
+        if (!IdempotencyStore.isValidKey(idempotencyKey)) {
             return null;
         }
+        Order remembered = getRememberedOrder(idempotencyKey);
+        if (remembered != null) {
+            return remembered;
+        }
+        Order order = orderRepository.findByIdempotencyKey(idempotencyKey).orElse(null);
+        if (order != null) {
+            idempotencyStore.remember(idempotencyKey, order.getId());
+        }
+        return order;
     }
     
-    public Order getOrderById(Long orderId) {
-        if (orderId == null || orderId <= 0) {
+    public void rememberIdempotencyKey(String idempotencyKey, Order order) {
+        if (idempotencyKey != null && order != null) {
+            idempotencyStore.remember(idempotencyKey, order.getId());
+        }
+    }
+    
+    public List<OrderSummary> getOrdersByBuyer(Long buyerId) {
+        if (buyerId == null || buyerId <= 0) {
             return null;
         }
-        return orderRepository.findById(orderId).orElse(null);
+        return orderRepository.findSummariesByBuyerId(buyerId);
+    }
+    
+    public List<OrderSummary> getOrdersBySeller(Long sellerId) {
+        if (sellerId == null || sellerId <= 0) {
+            return null;
+        }
+        return orderRepository.findSummariesBySellerId(sellerId);
     }
     
-    public List<Order> getOrdersByBuyer(Long buyerId) {
+    // 订单列表页一次取回商品与买卖双方信息，前端不再逐条请求
+    public List<OrderDetail> getOrderDetailsByBuyer(Long buyerId) {
         if (buyerId == null || buyerId <= 0) {
             return null;
         }
-        return orderRepository.findByBuyerId(buyerId);
+        return orderRepository.findDetailsByBuyerId(buyerId);
     }
     
-    public List<Order> getOrdersBySeller(Long sellerId) {
+    public List<OrderDetail> getOrderDetailsBySeller(Long sellerId) {
         if (sellerId == null || sellerId <= 0) {
             return null;
         }
-        return orderRepository.findBySellerId(sellerId);
+        return orderRepository.findDetailsBySellerId(sellerId);
     }
     
     public boolean updateOrderStatus(Long orderId, String status) {
@@ -61,16 +126,22 @@ public class OrderService {
             return false;
         }
         
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (!orderOpt.isPresent()) {
-            return false;
-        }
-        
-        Order order = orderOpt.get();
-        order.setStatus(status);
         try {
-            orderRepository.save(order);
-            return true;
+            return optimisticRetry.execute(OptimisticRetry.ORDER, orderId, () -> {
+                Optional<Order> orderOpt = orderRepository.findById(orderId);
+                if (!orderOpt.isPresent()) {
+                    return false;
+                }
+                Order order = orderOpt.get();
+                String previousStatus = order.getStatus();
+                order.setStatus(status);
+                orderRepository.save(order);
+                eventBus.publish(new OrderEvent(OrderEvent.Type.STATUS_CHANGED, order, previousStatus));
+                if (!Order.STATUS_PENDING.equals(status)) {
+                    stockReservationService.release(orderId);
+                }
+                return true;
+            });
         } catch (Exception e) {
             return false;
         }
@@ -81,16 +152,25 @@ public class OrderService {
             return false;
         }
         
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (!orderOpt.isPresent() || !orderOpt.get().cancelOrder()) {
-            return false;
-        }
-        
-        Order order = orderOpt.get();
-        itemService.increaseStock(order.getItemId(), order.getQuantity().intValue());
+        // 状态变更、库存回补与资金回退同一事务提交；先 flush 订单，版本冲突时不会多回补库存
         try {
-            orderRepository.save(order);
-            return true;
+            return optimisticRetry.execute(OptimisticRetry.ORDER, orderId, () -> {
+                Optional<Order> orderOpt = orderRepository.findById(orderId);
+                String previousStatus = orderOpt.map(Order::getStatus).orElse(null);
+                if (!orderOpt.isPresent() || !orderOpt.get().cancelOrder()) {
+                    return false;
+                }
+                Order order = orderRepository.saveAndFlush(orderOpt.get());
+                itemService.increaseStock(order.getItemId(), order.getQuantity().intValue());
+                if (!balanceLedger.reverseOrder(order, userRepository.findById(order.getSellerId()).orElse(null),
+                    BalanceEntry.REASON_ORDER_CANCELLED)) {
+                    logger.warn("cancelOrder: could not reclaim " + order.getTotalPrice()
+                        + " from seller " + order.getSellerId() + " for order " + orderId);
+                }
+                eventBus.publish(new OrderEvent(OrderEvent.Type.CANCELLED, order, previousStatus));
+                stockReservationService.release(orderId);
+                return true;
+            });
         } catch (Exception e) {
             return false;
         }
@@ -101,15 +181,17 @@ public class OrderService {
             return false;
         }
         
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (!orderOpt.isPresent() || !orderOpt.get().confirmOrder()) {
-            return false;
-        }
-        
-        Order order = orderOpt.get();
         try {
-            orderRepository.save(order);
-            return true;
+            return optimisticRetry.execute(OptimisticRetry.ORDER, orderId, () -> {
+                Optional<Order> orderOpt = orderRepository.findById(orderId);
+                if (!orderOpt.isPresent() || !orderOpt.get().confirmOrder()) {
+                    return false;
+                }
+                Order order = orderRepository.save(orderOpt.get());
+                eventBus.publish(new OrderEvent(OrderEvent.Type.CONFIRMED, order, Order.STATUS_PENDING));
+                stockReservationService.release(orderId);
+                return true;
+            });
         } catch (Exception e) {
             return false;
         }
@@ -120,42 +202,34 @@ public class OrderService {
             return false;
         }
         
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (!orderOpt.isPresent() || !orderOpt.get().completeOrder()) {
-            return false;
-        }
-        
-        Order order = orderOpt.get();
         try {
-            orderRepository.save(order);
-            return true;
+            return optimisticRetry.execute(OptimisticRetry.ORDER, orderId, () -> {
+                Optional<Order> orderOpt = orderRepository.findById(orderId);
+                if (!orderOpt.isPresent() || !orderOpt.get().completeOrder()) {
+                    return false;
+                }
+                Order order = orderRepository.save(orderOpt.get());
+                eventBus.publish(new OrderEvent(OrderEvent.Type.COMPLETED, order, Order.STATUS_CONFIRMED));
+                return true;
+            });
         } catch (Exception e) {
             return false;
         }
     }
     
-    public boolean validateOrderCreation(Long itemId, Long buyerId, Long sellerId, Long quantity) {
-        if (itemId == null || itemId <= 0
-            || buyerId == null || buyerId <= 0
-            || sellerId == null || sellerId <= 0
-            || quantity == null || quantity <= 0
-        ) {
-            return false;
-        }
-        
-        if (!itemService.isItemAvailable(itemId)) {
-            return false;
-        }
+    public List<OrderSummary> getAllOrders() {
+        return orderRepository.findAllSummaries();
+    }
     
-        if (userService.getUserById(buyerId) == null || 
-            userService.getUserById(sellerId) == null) {
-            return false;
-        }
-        
-        return !buyerId.equals(sellerId);
+    public List<OrderSummary> getOrdersAfter(Long lastId, Integer limit) {
+        return orderRepository.findSummariesAfter(
+            lastId == null || lastId < 0 ? 0L : lastId, Limit.of(PageUtil.clampPageSize(limit)));
     }
     
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    @Transactional(readOnly = true)
+    public long exportOrders(OutputStream out) throws IOException {
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            return ndjsonExporter.write(orders, out);
+        }
     }
 }
@@ -0,0 +1,124 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.util.PasswordUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 密码哈希执行器 - 哈希与校验在固定大小的专用线程池上执行，请求线程只等待结果
+ * 线程数默认为 CPU 核数的一半，登录高峰最多占用这部分 CPU，下单等请求仍有余量；
+ * 排队已满或等待超时直接抛 RejectedExecutionException，由控制器返回 503
+ */
+@Component
+public class PasswordHasher {
+
+    @Value("${password.hash.iterations:" + PasswordUtil.DEFAULT_ITERATIONS + "}")
+    private int iterations;
+
+    @Value("${password.hash.threads:0}")
+    private int threads;
+
+    @Value("${password.hash.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${password.hash.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private ThreadPoolExecutor executor;
+    // 用户不存在时也做一次同样代价的校验，避免按响应时间区分用户名是否存在
+    private String dummyHash;
+
+    @PostConstruct
+    public void start() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, "password-hasher-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        dummyHash = PasswordUtil.encryptPassword("dummy-password", iterations);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String hash(String password) {
+        return submit(() -> PasswordUtil.encryptPassword(password, iterations));
+    }
+
+    /**
+     * storedPassword 为 null（用户不存在）时对占位哈希做一次校验并返回 false
+     */
+    public boolean verify(String password, String storedPassword) {
+        if (storedPassword == null) {
+            submit(() -> PasswordUtil.verifyPassword(password, dummyHash));
+            return false;
+        }
+        return submit(() -> PasswordUtil.verifyPassword(password, storedPassword));
+    }
+
+    public boolean needsRehash(String storedPassword) {
+        return PasswordUtil.needsRehash(storedPassword, iterations);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getHashCount() {
+        return hashCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw e;
+        }
+        try {
+            T result = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            hashCount.increment();
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            rejectedCount.increment();
+            throw new RejectedExecutionException("password hash timed out after " + timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("interrupted while waiting for password hash", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
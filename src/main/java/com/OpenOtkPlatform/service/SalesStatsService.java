@@ -0,0 +1,404 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.domain.DomainEvent;
+import com.OpenOtkPlatform.domain.ItemSalesSummary;
+import com.OpenOtkPlatform.domain.Order;
+import com.OpenOtkPlatform.domain.OrderEvent;
+import com.OpenOtkPlatform.domain.UserOrderSummary;
+import com.OpenOtkPlatform.repository.ItemSalesSummaryRepository;
+import com.OpenOtkPlatform.repository.UserOrderSummaryRepository;
+import com.OpenOtkPlatform.util.Logger;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 销售统计 - 增量维护的商品/用户汇总，替代 GROUP BY 视图
+ * 订阅 DomainEventBus 的订单事件，状态变化先累加到内存中的 LongAdder 增量，后台线程定期合并进汇总表；
+ * 读取 = 汇总表主键查询 + 未刷写增量。对账任务从 orders 全量重建汇总表
+ */
+@Service
+public class SalesStatsService {
+
+    private static final String UPSERT_ITEM_SQL =
+        "INSERT INTO item_sales_summary (item_id, total_orders, completed_orders, total_revenue, update_time) "
+        + "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+        + "total_orders = total_orders + VALUES(total_orders), "
+        + "completed_orders = completed_orders + VALUES(completed_orders), "
+        + "total_revenue = total_revenue + VALUES(total_revenue), "
+        + "update_time = VALUES(update_time)";
+
+    private static final String UPSERT_USER_SQL =
+        "INSERT INTO user_order_summary (user_id, total_orders, pending_orders, completed_orders, total_spent, "
+        + "sold_orders, total_earned, update_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+        + "total_orders = total_orders + VALUES(total_orders), "
+        + "pending_orders = pending_orders + VALUES(pending_orders), "
+        + "completed_orders = completed_orders + VALUES(completed_orders), "
+        + "total_spent = total_spent + VALUES(total_spent), "
+        + "sold_orders = sold_orders + VALUES(sold_orders), "
+        + "total_earned = total_earned + VALUES(total_earned), "
+        + "update_time = VALUES(update_time)";
+
+    private static final String COMPLETED = "'" + Order.STATUS_COMPLETED + "'";
+    private static final String PENDING = "'" + Order.STATUS_PENDING + "'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ItemSalesSummaryRepository itemSalesSummaryRepository;
+
+    @Autowired
+    private UserOrderSummaryRepository userOrderSummaryRepository;
+
+    @Autowired
+    private DomainEventBus eventBus;
+
+    @Value("${sales.stats.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${sales.stats.reconcile-interval-minutes:60}")
+    private long reconcileIntervalMinutes;
+
+    @Value("${sales.stats.reconcile-on-startup:false}")
+    private boolean reconcileOnStartup;
+
+    private final Logger logger = Logger.getInstance();
+
+    // 条目只增不删：删除与并发累加之间存在丢失窗口，条目数以商品/用户数为上限
+    private final ConcurrentMap<Long, ItemDelta> itemDeltas = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, UserDelta> userDeltas = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sales-stats-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (reconcileOnStartup) {
+            scheduler.execute(this::reconcile);
+        }
+        if (reconcileIntervalMinutes > 0) {
+            scheduler.scheduleWithFixedDelay(this::reconcile,
+                reconcileIntervalMinutes, reconcileIntervalMinutes, TimeUnit.MINUTES);
+        }
+        eventBus.subscribe(DomainEventBus.SUBSCRIBER_STATS, this::onEvents);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        eventBus.unsubscribe(DomainEventBus.SUBSCRIBER_STATS);
+        scheduler.shutdownNow();
+        flushQuietly();
+    }
+
+    /**
+     * 统计订阅者：订单事件在提交后才发布，按事件累加内存增量
+     */
+    void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (!(event instanceof OrderEvent order)) {
+                continue;
+            }
+            long cents = toCents(order.getTotalPrice());
+            if (order.getType() == OrderEvent.Type.CREATED) {
+                itemDelta(order.getItemId()).totalOrders.increment();
+                userDelta(order.getBuyerId()).totalOrders.increment();
+                applyStatus(order, order.getStatus(), 1, cents);
+            } else if (order.getStatus() != null && !order.getStatus().equals(order.getPreviousStatus())) {
+                applyStatus(order, order.getPreviousStatus(), -1, cents);
+                applyStatus(order, order.getStatus(), 1, cents);
+            }
+        }
+    }
+
+    public ItemSalesSummary getItemStats(Long itemId) {
+        if (itemId == null || itemId <= 0) {
+            return null;
+        }
+        ItemSalesSummary stored = itemSalesSummaryRepository.findById(itemId).orElse(null);
+        ItemSalesSummary result = new ItemSalesSummary(itemId);
+        if (stored != null) {
+            result.setTotalOrders(stored.getTotalOrders());
+            result.setCompletedOrders(stored.getCompletedOrders());
+            result.setTotalRevenue(stored.getTotalRevenue());
+            result.setUpdateTime(stored.getUpdateTime());
+        }
+        ItemDelta delta = itemDeltas.get(itemId);
+        if (delta != null) {
+            result.setTotalOrders(result.getTotalOrders() + delta.totalOrders.sum());
+            result.setCompletedOrders(result.getCompletedOrders() + delta.completedOrders.sum());
+            result.setTotalRevenue(addCents(result.getTotalRevenue(), delta.revenueCents.sum()));
+        }
+        return result;
+    }
+
+    public UserOrderSummary getUserStats(Long userId) {
+        if (userId == null || userId <= 0) {
+            return null;
+        }
+        UserOrderSummary stored = userOrderSummaryRepository.findById(userId).orElse(null);
+        UserOrderSummary result = new UserOrderSummary(userId);
+        if (stored != null) {
+            result.setTotalOrders(stored.getTotalOrders());
+            result.setPendingOrders(stored.getPendingOrders());
+            result.setCompletedOrders(stored.getCompletedOrders());
+            result.setTotalSpent(stored.getTotalSpent());
+            result.setSoldOrders(stored.getSoldOrders());
+            result.setTotalEarned(stored.getTotalEarned());
+            result.setUpdateTime(stored.getUpdateTime());
+        }
+        UserDelta delta = userDeltas.get(userId);
+        if (delta != null) {
+            result.setTotalOrders(result.getTotalOrders() + delta.totalOrders.sum());
+            result.setPendingOrders(result.getPendingOrders() + delta.pendingOrders.sum());
+            result.setCompletedOrders(result.getCompletedOrders() + delta.completedOrders.sum());
+            result.setTotalSpent(addCents(result.getTotalSpent(), delta.spentCents.sum()));
+            result.setSoldOrders(result.getSoldOrders() + delta.soldOrders.sum());
+            result.setTotalEarned(addCents(result.getTotalEarned(), delta.earnedCents.sum()));
+        }
+        return result;
+    }
+
+    /**
+     * 把内存增量合并进汇总表；写入失败时增量加回，下次重试
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            List<Delta> taken = new ArrayList<>();
+            List<long[]> takenValues = new ArrayList<>();
+            List<Object[]> itemRows = new ArrayList<>();
+            for (Map.Entry<Long, ItemDelta> entry : itemDeltas.entrySet()) {
+                long[] values = entry.getValue().take();
+                if (values != null) {
+                    itemRows.add(new Object[] {entry.getKey(), values[0], values[1], values[2] / 100.0, now});
+                    taken.add(entry.getValue());
+                    takenValues.add(values);
+                }
+            }
+            List<Object[]> userRows = new ArrayList<>();
+            for (Map.Entry<Long, UserDelta> entry : userDeltas.entrySet()) {
+                long[] values = entry.getValue().take();
+                if (values != null) {
+                    userRows.add(new Object[] {entry.getKey(), values[0], values[1], values[2],
+                        values[3] / 100.0, values[4], values[5] / 100.0, now});
+                    taken.add(entry.getValue());
+                    takenValues.add(values);
+                }
+            }
+            if (taken.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!itemRows.isEmpty()) {
+                        jdbcTemplate.batchUpdate(UPSERT_ITEM_SQL, itemRows);
+                    }
+                    if (!userRows.isEmpty()) {
+                        jdbcTemplate.batchUpdate(UPSERT_USER_SQL, userRows);
+                    }
+                });
+            } catch (RuntimeException e) {
+                for (int i = 0; i < taken.size(); i++) {
+                    taken.get(i).addBack(takenValues.get(i));
+                }
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 从 orders 全量重建汇总表并丢弃内存增量
+     * 增量在订单提交后才记录，重建期间恰好提交的订单可能被重复计入一次，由下次对账修正
+     */
+    public boolean reconcile() {
+        long start = System.currentTimeMillis();
+        flushLock.lock();
+        try {
+            for (ItemDelta delta : itemDeltas.values()) {
+                delta.take();
+            }
+            for (UserDelta delta : userDeltas.values()) {
+                delta.take();
+            }
+            transactionTemplate.executeWithoutResult(status -> rebuildTables());
+            logger.info("SalesStatsService reconciled in " + (System.currentTimeMillis() - start) + "ms");
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("SalesStatsService reconcile failed: " + e.getMessage());
+            return false;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void rebuildTables() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> itemRows = jdbcTemplate.query(
+            "SELECT item_id, COUNT(*), "
+            + "SUM(CASE WHEN status = " + COMPLETED + " THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN status = " + COMPLETED + " THEN total_price ELSE 0 END) "
+            + "FROM orders GROUP BY item_id",
+            (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getDouble(4), now});
+
+        Map<Long, Object[]> userRows = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT buyer_id, COUNT(*), "
+            + "SUM(CASE WHEN status = " + PENDING + " THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN status = " + COMPLETED + " THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN status = " + COMPLETED + " THEN total_price ELSE 0 END) "
+            + "FROM orders GROUP BY buyer_id",
+            rs -> {
+                userRows.put(rs.getLong(1), new Object[] {rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                    rs.getLong(4), rs.getDouble(5), 0L, 0.0, now});
+            });
+        jdbcTemplate.query(
+            "SELECT seller_id, COUNT(*), SUM(total_price) FROM orders "
+            + "WHERE status = " + COMPLETED + " GROUP BY seller_id",
+            rs -> {
+                Object[] row = userRows.computeIfAbsent(rs.getLong(1),
+                    id -> new Object[] {id, 0L, 0L, 0L, 0.0, 0L, 0.0, now});
+                row[5] = rs.getLong(2);
+                row[6] = rs.getDouble(3);
+            });
+
+        jdbcTemplate.update("DELETE FROM item_sales_summary");
+        jdbcTemplate.update("DELETE FROM user_order_summary");
+        if (!itemRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_ITEM_SQL, itemRows);
+        }
+        if (!userRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_USER_SQL, new ArrayList<>(userRows.values()));
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("SalesStatsService flush failed: " + e.getMessage());
+        }
+    }
+
+    private void applyStatus(OrderEvent order, String status, int sign, long cents) {
+        if (Order.STATUS_PENDING.equals(status)) {
+            userDelta(order.getBuyerId()).pendingOrders.add(sign);
+        } else if (Order.STATUS_COMPLETED.equals(status)) {
+            ItemDelta item = itemDelta(order.getItemId());
+            item.completedOrders.add(sign);
+            item.revenueCents.add(sign * cents);
+            UserDelta buyer = userDelta(order.getBuyerId());
+            buyer.completedOrders.add(sign);
+            buyer.spentCents.add(sign * cents);
+            UserDelta seller = userDelta(order.getSellerId());
+            seller.soldOrders.add(sign);
+            seller.earnedCents.add(sign * cents);
+        }
+    }
+
+    private ItemDelta itemDelta(Long itemId) {
+        return itemDeltas.computeIfAbsent(itemId, id -> new ItemDelta());
+    }
+
+    private UserDelta userDelta(Long userId) {
+        return userDeltas.computeIfAbsent(userId, id -> new UserDelta());
+    }
+
+    private static long toCents(Double amount) {
+        return amount == null ? 0L : Math.round(amount * 100);
+    }
+
+    private static Double addCents(Double amount, long cents) {
+        return (toCents(amount) + cents) / 100.0;
+    }
+
+    /**
+     * 一组 LongAdder 增量；take() 取出并清零，写库失败时 addBack() 加回
+     * 取出到提交之间读到的统计会暂时偏小，不影响最终值
+     */
+    private abstract static class Delta {
+        private final LongAdder[] adders;
+
+        Delta(int size) {
+            adders = new LongAdder[size];
+            for (int i = 0; i < size; i++) {
+                adders[i] = new LongAdder();
+            }
+        }
+
+        LongAdder adder(int index) {
+            return adders[index];
+        }
+
+        long[] take() {
+            long[] values = new long[adders.length];
+            boolean any = false;
+            for (int i = 0; i < adders.length; i++) {
+                values[i] = adders[i].sumThenReset();
+                any |= values[i] != 0;
+            }
+            return any ? values : null;
+        }
+
+        void addBack(long[] values) {
+            for (int i = 0; i < adders.length; i++) {
+                adders[i].add(values[i]);
+            }
+        }
+    }
+
+    private static final class ItemDelta extends Delta {
+        private final LongAdder totalOrders = adder(0);
+        private final LongAdder completedOrders = adder(1);
+        private final LongAdder revenueCents = adder(2);
+
+        ItemDelta() {
+            super(3);
+        }
+    }
+
+    private static final class UserDelta extends Delta {
+        private final LongAdder totalOrders = adder(0);
+        private final LongAdder pendingOrders = adder(1);
+        private final LongAdder completedOrders = adder(2);
+        private final LongAdder spentCents = adder(3);
+        private final LongAdder soldOrders = adder(4);
+        private final LongAdder earnedCents = adder(5);
+
+        UserDelta() {
+            super(6);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.OpenOtkPlatform.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 会话存储 - 登录时签发随机令牌，令牌 -> 会话保存在内存中，校验不访问数据库
+ * 空闲超过 idle-minutes 过期，每次校验都会续期（滑动过期）；自签发起超过 max-lifetime-hours 强制失效
+ * 退出登录即删除令牌；仅单实例有效，重启后所有用户需重新登录
+ */
+@Component
+public class SessionStore {
+
+    public static final String BEARER_PREFIX = "Bearer ";
+
+    private static final int TOKEN_BYTES = 32;
+
+    @Value("${session.max-size:100000}")
+    private long maxSize;
+
+    @Value("${session.idle-minutes:30}")
+    private long idleMinutes;
+
+    @Value("${session.max-lifetime-hours:12}")
+    private long maxLifetimeHours;
+
+    private final SecureRandom random = new SecureRandom();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private Cache<String, Session> sessions;
+
+    @PostConstruct
+    public void init() {
+        sessions = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+            .build();
+    }
+
+    public Session create(Long userId, String username) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session session = new Session(token, userId, username, System.currentTimeMillis());
+        sessions.put(token, session);
+        return session;
+    }
+
+    /**
+     * 校验令牌，有效时返回会话并续期，否则返回 null
+     */
+    public Session validate(String token) {
+        Session session = token == null || token.isEmpty() ? null : sessions.getIfPresent(token);
+        if (session != null && session.getCreateTime() + Duration.ofHours(maxLifetimeHours).toMillis()
+            < System.currentTimeMillis()) {
+            sessions.invalidate(token);
+            session = null;
+        }
+        if (session == null) {
+            rejectedCount.increment();
+        }
+        return session;
+    }
+
+    public boolean revoke(String token) {
+        return token != null && sessions.asMap().remove(token) != null;
+    }
+
+    /**
+     * 删除用户的全部会话（账号删除时使用），需遍历全部会话
+     */
+    public int revokeUser(Long userId) {
+        int before = sessions.asMap().size();
+        sessions.asMap().values().removeIf(session -> session.getUserId().equals(userId));
+        return before - sessions.asMap().size();
+    }
+
+    public long getIdleSeconds() {
+        return Duration.ofMinutes(idleMinutes).toSeconds();
+    }
+
+    public long size() {
+        return sessions.estimatedSize();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 从 Authorization 请求头中取出 Bearer 令牌，格式不符返回 null
+     */
+    public static String bearerToken(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        String token = authorization.substring(BEARER_PREFIX.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    public static class Session {
+        private final String token;
+        private final Long userId;
+        private final String username;
+        private final long createTime;
+
+        public Session(String token, Long userId, String username, long createTime) {
+            this.token = token;
+            this.userId = userId;
+            this.username = username;
+            this.createTime = createTime;
+        }
+
+        public String getToken() { return token; }
+        public Long getUserId() { return userId; }
+        public String getUsername() { return username; }
+        public long getCreateTime() { return createTime; }
+    }
+}
@@ -0,0 +1,239 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.domain.BalanceEntry;
+import com.OpenOtkPlatform.domain.ItemEvent;
+import com.OpenOtkPlatform.domain.Order;
+import com.OpenOtkPlatform.domain.OrderEvent;
+import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.repository.ItemRepository;
+import com.OpenOtkPlatform.repository.OrderRepository;
+import com.OpenOtkPlatform.repository.UserRepository;
+import com.OpenOtkPlatform.util.IdListUtil;
+import com.OpenOtkPlatform.util.Logger;
+import com.OpenOtkPlatform.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 库存预占 - 待确认订单占用的库存在 reserved_until 之前有效，过期未确认则自动取消
+ * 截止时间登记在内存时间轮中，后台线程每个刻度推进一次，到期订单按批在单事务内取消：
+ * 库存按商品合并后各回补一次，买家退款、卖家扣回与手动取消一致。不对订单表做定时轮询
+ * 重启时按 idx_status 一次性读回所有待确认订单的截止时间，停机期间已过期的在首个刻度处理
+ */
+@Service
+public class StockReservationService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private DomainEventBus eventBus;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${order.reservation.ttl-seconds:1800}")
+    private long ttlSeconds;
+
+    @Value("${order.reservation.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${order.reservation.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${order.reservation.batch-size:200}")
+    private int batchSize;
+
+    @Value("${order.reservation.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    private final Logger logger = Logger.getInstance();
+    private final LongAdder expiredCount = new LongAdder();
+
+    private TimingWheel wheel;
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        wheel = new TimingWheel(tickMs, wheelSize, System.currentTimeMillis());
+
+        int filled = orderRepository.fillMissingReservedUntil(Order.STATUS_PENDING, newDeadline());
+        if (filled > 0) {
+            logger.info("StockReservationService: assigned reservation deadline to " + filled + " pending orders");
+        }
+        for (Object[] row : orderRepository.findReservationDeadlines(Order.STATUS_PENDING)) {
+            wheel.schedule((Long) row[0], ((Date) row[1]).getTime());
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reservation-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweepQuietly, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public Date newDeadline() {
+        return new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds));
+    }
+
+    /**
+     * 登记订单的预占截止时间，随调用方事务提交后生效
+     */
+    public void schedule(Order order) {
+        if (order == null || order.getId() == null || order.getReservedUntil() == null) {
+            return;
+        }
+        Long orderId = order.getId();
+        long deadline = order.getReservedUntil().getTime();
+        afterCommit(() -> wheel.schedule(orderId, deadline));
+    }
+
+    /**
+     * 订单已确认或取消，不再需要到期处理；漏调用也无妨，到期时会按当前状态跳过
+     */
+    public void release(Long orderId) {
+        if (orderId != null) {
+            wheel.cancel(orderId);
+        }
+    }
+
+    public int getOpenCount() {
+        return wheel.size();
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    /**
+     * 推进时间轮并取消到期订单；批次失败时该批订单延后 retry-delay-ms 重试
+     */
+    public void sweep() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        for (List<Long> chunk : IdListUtil.partition(due, batchSize)) {
+            try {
+                expire(chunk);
+            } catch (RuntimeException e) {
+                logger.error("StockReservationService: failed to expire " + chunk.size()
+                    + " orders, will retry: " + e.getMessage());
+                long retryAt = System.currentTimeMillis() + retryDelayMs;
+                for (Long orderId : chunk) {
+                    wheel.schedule(orderId, retryAt);
+                }
+            }
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            logger.error("StockReservationService: sweep failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 加锁顺序：订单 -> 商品（increaseStock）-> 卖家，均按ID升序；与下单的 商品 -> 买家 不构成环
+     */
+    private void expire(List<Long> orderIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Date now = new Date();
+            List<Order> expired = new ArrayList<>();
+            for (Order order : orderRepository.findAllByIdAndStatusForUpdate(orderIds, Order.STATUS_PENDING)) {
+                Date reservedUntil = order.getReservedUntil();
+                if (reservedUntil != null && reservedUntil.after(now)) {
+                    schedule(order);
+                } else if (order.cancelOrder()) {
+                    expired.add(order);
+                }
+            }
+            if (expired.isEmpty()) {
+                return;
+            }
+            // increaseStock 会清空持久化上下文，先把订单状态刷写出去
+            orderRepository.saveAllAndFlush(expired);
+
+            Map<Long, Integer> quantityByItem = new TreeMap<>();
+            TreeSet<Long> sellerIds = new TreeSet<>();
+            for (Order order : expired) {
+                quantityByItem.merge(order.getItemId(), order.getQuantity().intValue(), Integer::sum);
+                sellerIds.add(order.getSellerId());
+            }
+            for (Map.Entry<Long, Integer> entry : quantityByItem.entrySet()) {
+                itemRepository.increaseStock(entry.getKey(), entry.getValue(), now);
+                itemCache.invalidate(entry.getKey());
+                eventBus.publish(ItemEvent.stockChanged(entry.getKey()));
+            }
+
+            Map<Long, User> sellers = new HashMap<>();
+            for (User seller : userRepository.findAllByIdForUpdate(sellerIds)) {
+                sellers.put(seller.getId(), seller);
+            }
+            for (Order order : expired) {
+                if (!balanceLedger.reverseOrder(order, sellers.get(order.getSellerId()),
+                    BalanceEntry.REASON_ORDER_EXPIRED)) {
+                    logger.warn("StockReservationService: could not reclaim " + order.getTotalPrice()
+                        + " from seller " + order.getSellerId() + " for expired order " + order.getId());
+                }
+                eventBus.publish(new OrderEvent(OrderEvent.Type.EXPIRED, order, Order.STATUS_PENDING));
+            }
+
+            afterCommit(() -> expiredCount.add(expired.size()));
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
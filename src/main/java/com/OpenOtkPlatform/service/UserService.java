@@ -1,14 +1,24 @@
 package com.OpenOtkPlatform.service;
 
+import com.OpenOtkPlatform.domain.BalanceEntry;
+import com.OpenOtkPlatform.domain.MultiGetResult;
 import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.domain.UserEvent;
+import com.OpenOtkPlatform.domain.UserProfile;
 import com.OpenOtkPlatform.repository.UserRepository;
-import com.OpenOtkPlatform.util.PasswordUtil;
+import com.OpenOtkPlatform.util.IdListUtil;
 import com.OpenOtkPlatform.util.ValidationUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class UserService {
@@ -16,6 +26,21 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    
+    @Autowired
+    private BalanceLedger balanceLedger;
+    
+    @Autowired
+    private SessionStore sessionStore;
+    
+    @Autowired
+    private PasswordHasher passwordHasher;
+    
+    @Autowired
+    private DomainEventBus eventBus;
+    
     public boolean register(String username, String password, String email, String phone) {
         if (username == null || username.trim().isEmpty()
             || password == null || password.trim().isEmpty()
@@ -29,17 +54,22 @@ public class UserService {
             return false;
         }
         
-        String encryptedPassword = PasswordUtil.encryptPassword(password);
+        String encryptedPassword = passwordHasher.hash(password);
         User newUser = new User(username, encryptedPassword, email, phone);
         
         try {
-            userRepository.save(newUser);
+            User savedUser = userRepository.save(newUser);
+            eventBus.publish(new UserEvent(UserEvent.Type.REGISTERED, savedUser.getId()));
             return true;
         } catch (Exception e) {
             return false;
         }
     }
     
+    /**
+     * 哈希在 PasswordHasher 线程池上执行，期间不持有数据库连接；线程池繁忙时抛 RejectedExecutionException
+     * 校验通过且存储的是旧版明文或旧参数哈希时，顺带按当前参数重新哈希
+     */
     public User login(String username, String password) {
         if (username == null || username.trim().isEmpty()
             || password == null || password.trim().isEmpty()
@@ -48,17 +78,66 @@ public class UserService {
         }
         
         Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent() && PasswordUtil.verifyPassword(password, userOpt.get().getPassword())) {
-            return userOpt.get();
+        String storedPassword = userOpt.map(User::getPassword).orElse(null);
+        if (!passwordHasher.verify(password, storedPassword)) {
+            return null;
         }
-        return null;
+        User user = userOpt.get();
+        if (passwordHasher.needsRehash(storedPassword)) {
+            String rehashed = passwordHasher.hash(password);
+            if (userRepository.updatePasswordIfUnchanged(user.getId(), storedPassword, rehashed) == 1) {
+                user.setPassword(rehashed);
+            }
+        }
+        eventBus.publish(new UserEvent(UserEvent.Type.LOGGED_IN, user.getId()));
+        return balanceLedger.withPendingCredit(user);
+    }
+    
+    public void logout(SessionStore.Session session) {
+        sessionStore.revoke(session.getToken());
+        eventBus.publish(new UserEvent(UserEvent.Type.LOGGED_OUT, session.getUserId()));
     }
     
+    // 只读事务：Hibernate 不为加载的实体保留快照，也不做脏检查
+    @Transactional(readOnly = true)
     public User getUserById(Long userId) {
         if (userId == null || userId <= 0) {
             return null;
         }
-        return userRepository.findById(userId).orElse(null);
+        return balanceLedger.withPendingCredit(userRepository.findById(userId).orElse(null));
+    }
+    
+    // 对外展示的用户资料，不读取密码列
+    public UserProfile getUserProfile(Long userId) {
+        if (userId == null || userId <= 0) {
+            return null;
+        }
+        return balanceLedger.withPendingCredit(userRepository.findProfileById(userId).orElse(null));
+    }
+    
+    /**
+     * 批量查询用户资料，按 IN 列表分块查库；ids 须已去重
+     */
+    public MultiGetResult<UserProfile> getUserProfilesByIds(List<Long> ids) {
+        Map<Long, UserProfile> loaded = new HashMap<>();
+        for (List<Long> chunk : IdListUtil.partition(ids, IdListUtil.IN_CHUNK_SIZE)) {
+            for (UserProfile profile : userRepository.findProfilesByIdIn(chunk)) {
+                loaded.put(profile.getId(), balanceLedger.withPendingCredit(profile));
+            }
+        }
+        return MultiGetResult.of(ids, loaded);
+    }
+    
+    // 批量校验用：返回给定ID中实际存在的用户ID
+    public Set<Long> getExistingUserIds(Collection<Long> userIds) {
+        Set<Long> existing = new HashSet<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return existing;
+        }
+        for (User user : userRepository.findAllById(userIds)) {
+            existing.add(user.getId());
+        }
+        return existing;
     }
     
     public User getUserByUsername(String username) {
@@ -86,6 +165,7 @@ public class UserService {
         }
         try {
             userRepository.deleteById(userId);
+            sessionStore.revokeUser(userId);
             return true;
         } catch (Exception e) {
             return false;
@@ -113,15 +193,12 @@ public class UserService {
             return false;
         }
         
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (!userOpt.isPresent()) {
-            return false;
-        }
-        
-        User user = userOpt.get();
-        user.addBalance(amount);
+        // 只追加入账流水，不读写 users 行，由账本后台合并
         try {
-            userRepository.save(user);
+            if (!userRepository.existsById(userId)) {
+                return false;
+            }
+            balanceLedger.credit(userId, amount, BalanceEntry.REASON_RECHARGE, null);
             return true;
         } catch (Exception e) {
             return false;
@@ -135,21 +212,19 @@ public class UserService {
             return false;
         }
         
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (!userOpt.isPresent()) {
-            return false;
-        }
-        
-        User user = userOpt.get();
-        if (user.deductBalance(amount)) {
-            try {
-                userRepository.save(user);
+        try {
+            return optimisticRetry.execute(OptimisticRetry.USER, userId, () -> {
+                Optional<User> userOpt = userRepository.findById(userId);
+                if (!userOpt.isPresent()
+                    || balanceLedger.debit(userOpt.get(), amount, BalanceEntry.REASON_DEDUCT, null) == null) {
+                    return false;
+                }
+                userRepository.save(userOpt.get());
                 return true;
-            } catch (Exception e) {
-                return false;
-            }
+            });
+        } catch (Exception e) {
+            return false;
         }
-        return false;
     }
     
     public List<User> getAllUsers() {
@@ -0,0 +1,41 @@
+package com.OpenOtkPlatform.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * ID 列表工具类 - 批量查询前的去重与 IN 列表分块
+ */
+public class IdListUtil {
+
+    // 单次批量查询最多接受的 ID 数
+    public static final int MAX_IDS = 500;
+    // 每条 IN 查询的参数个数，分块后语句形态固定，便于复用执行计划
+    public static final int IN_CHUNK_SIZE = 100;
+
+    private IdListUtil() { }
+
+    /**
+     * 去掉 null、非正数与重复 ID，保留首次出现的顺序
+     */
+    public static List<Long> normalize(List<Long> ids) {
+        LinkedHashSet<Long> unique = new LinkedHashSet<>();
+        if (ids != null) {
+            for (Long id : ids) {
+                if (id != null && id > 0) {
+                    unique.add(id);
+                }
+            }
+        }
+        return new ArrayList<>(unique);
+    }
+
+    public static List<List<Long>> partition(List<Long> ids, int chunkSize) {
+        List<List<Long>> chunks = new ArrayList<>((ids.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+}
@@ -1,80 +1,233 @@
 package com.OpenOtkPlatform.util;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Date;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * 日志记录器 - 观察者模式
+ * 级别过滤在格式化之前完成，输出由后台线程异步写出，请求线程只负责入队
  */
 public class Logger {
-    private static Logger instance;
-    private List<LogObserver> observers;
-    
+
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int DRAIN_BATCH = 256;
+    private static final DateTimeFormatter TIME_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final CopyOnWriteArrayList<LogObserver> observers = new CopyOnWriteArrayList<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final BlockingQueue<LogEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong droppedCount = new AtomicLong();
+    private volatile Level level;
+    private final Thread appenderThread;
+
     private Logger() {
-        this.observers = new ArrayList<>();
+        this.level = parseLevel(System.getProperty("otk.logger.level"), Level.DEBUG);
+        String logFile = System.getProperty("otk.logger.file");
+        if (logFile != null && !logFile.isBlank()) {
+            observers.add(new FileLogObserver(Paths.get(logFile),
+                Long.getLong("otk.logger.file.max-bytes", 16L * 1024 * 1024),
+                Integer.getInteger("otk.logger.file.max-backups", 5)));
+        }
+        this.appenderThread = new Thread(this::drainLoop, "otk-logger-appender");
+        this.appenderThread.setDaemon(true);
+        this.appenderThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushRemaining, "otk-logger-shutdown"));
     }
-    
+
+    private static class Holder {
+        private static final Logger INSTANCE = new Logger();
+    }
+
     public static Logger getInstance() {
-        if (instance == null) {
-            instance = new Logger();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
-    
+
     public void addObserver(LogObserver observer) {
-        if (observer != null && !observers.contains(observer)) {
-            observers.add(observer);
+        if (observer != null) {
+            observers.addIfAbsent(observer);
         }
     }
-    
+
     public void removeObserver(LogObserver observer) {
         if (observer != null) {
             observers.remove(observer);
         }
     }
-    
+
     public void notifyObservers(String message) {
         for (LogObserver observer : observers) {
             observer.update(message);
         }
     }
-    
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public void setLevel(Level level) {
+        if (level != null) {
+            this.level = level;
+        }
+    }
+
+    public boolean isEnabled(Level target) {
+        return target.ordinal() >= level.ordinal();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
     public void info(String message) {
-        String logMessage = formatLogMessage("INFO", message);
-        System.out.println(logMessage);
-        notifyObservers(logMessage);
+        log(Level.INFO, message);
     }
-    
+
     public void warn(String message) {
-        String logMessage = formatLogMessage("WARN", message);
-        System.out.println(logMessage);
-        notifyObservers(logMessage);
+        log(Level.WARN, message);
     }
-    
+
     public void error(String message) {
-        String logMessage = formatLogMessage("ERROR", message);
-        System.err.println(logMessage);
-        notifyObservers(logMessage);
+        log(Level.ERROR, message);
     }
-    
+
     public void debug(String message) {
-        String logMessage = formatLogMessage("DEBUG", message);
-        System.out.println(logMessage);
-        notifyObservers(logMessage);
+        log(Level.DEBUG, message);
+    }
+
+    public void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, message.get());
+        }
+    }
+
+    public void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, message.get());
+        }
+    }
+
+    private void log(Level target, String message) {
+        if (!isEnabled(target)) {
+            return;
+        }
+        // 只记录时间戳与原始消息，格式化留给后台线程
+        if (!queue.offer(new LogEvent(System.currentTimeMillis(), target, message))) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    private void drainLoop() {
+        List<LogEvent> batch = new ArrayList<>(DRAIN_BATCH);
+        while (true) {
+            try {
+                LogEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH - 1);
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                batch.clear();
+            }
+        }
     }
-    
-    private String formatLogMessage(String level, String message) {
-        return String.format("[%s] %s - %s", 
-            new Date().toString(), level, message);
+
+    private void write(List<LogEvent> batch) {
+        writeLock.lock();
+        try {
+            for (LogEvent event : batch) {
+                String logMessage = formatLogMessage(event);
+                PrintStream out = event.level == Level.ERROR ? System.err : System.out;
+                out.println(logMessage);
+                notifyObservers(logMessage);
+            }
+            long dropped = droppedCount.getAndSet(0);
+            if (dropped > 0) {
+                System.err.println("[Logger] dropped " + dropped + " messages, appender queue full");
+            }
+            for (LogObserver observer : observers) {
+                observer.flush();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void flushRemaining() {
+        List<LogEvent> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        write(batch);
+        for (LogObserver observer : observers) {
+            observer.close();
+        }
+    }
+
+    private static String formatLogMessage(LogEvent event) {
+        return "[" + TIME_FORMAT.format(Instant.ofEpochMilli(event.timestamp)) + "] "
+            + event.level + " - " + event.message;
+    }
+
+    private static Level parseLevel(String value, Level defaultLevel) {
+        if (value == null) {
+            return defaultLevel;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
+    }
+
+    private static final class LogEvent {
+        private final long timestamp;
+        private final Level level;
+        private final String message;
+
+        private LogEvent(long timestamp, Level level, String message) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.message = message;
+        }
     }
 }
 
 /**
  * 日志观察者接口
+ * 回调均在日志后台线程上执行
  */
 interface LogObserver {
     void update(String message);
+
+    default void flush() { }
+
+    default void close() { }
 }
 
 /**
@@ -89,12 +242,90 @@ class ConsoleLogObserver implements LogObserver {
 
 /**
  * 文件日志观察者实现
+ * 缓冲批量写入，超过 maxBytes 时滚动为 file.1 ... file.N
  */
 class FileLogObserver implements LogObserver {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final long maxBytes;
+    private final int maxBackups;
+    private OutputStream out;
+    private long currentBytes;
+
+    FileLogObserver(Path path, long maxBytes, int maxBackups) {
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.maxBackups = Math.max(maxBackups, 0);
+    }
+
     @Override
     public void update(String message) {
-        // 这里可以实现将日志写入文件的功能
-        // 为了简化，这里只打印到控制台
-        System.out.println("File Observer: " + message);
+        byte[] bytes = (message + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        try {
+            if (out == null) {
+                open();
+            }
+            if (currentBytes > 0 && currentBytes + bytes.length > maxBytes) {
+                rollover();
+            }
+            out.write(bytes);
+            currentBytes += bytes.length;
+        } catch (IOException e) {
+            System.err.println("[FileLogObserver] write failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (out != null) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                System.err.println("[FileLogObserver] flush failed: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // 关闭阶段忽略
+            }
+            out = null;
+        }
+    }
+
+    private void open() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        out = new BufferedOutputStream(Files.newOutputStream(path,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND), BUFFER_SIZE);
+        currentBytes = Files.size(path);
+    }
+
+    private void rollover() throws IOException {
+        close();
+        if (maxBackups == 0) {
+            Files.deleteIfExists(path);
+        } else {
+            Files.deleteIfExists(backup(maxBackups));
+            for (int i = maxBackups - 1; i >= 1; i--) {
+                Path source = backup(i);
+                if (Files.exists(source)) {
+                    Files.move(source, backup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, backup(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open();
+    }
+
+    private Path backup(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
     }
 }
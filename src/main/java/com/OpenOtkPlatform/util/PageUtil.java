@@ -0,0 +1,22 @@
+package com.OpenOtkPlatform.util;
+
+/**
+ * 分页工具类 - 游标分页与导出接口共用的每页条数约束
+ */
+public class PageUtil {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private PageUtil() { }
+
+    /**
+     * 未指定或非正数取默认值，超过上限截断
+     */
+    public static int clampPageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+}
@@ -1,31 +1,98 @@
 package com.OpenOtkPlatform.util;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
 /**
- * 密码工具类
+ * 密码工具类 - PBKDF2-HMAC-SHA256 加盐哈希，迭代次数写在哈希串中，可随时调整而不影响已有密码
+ * 存储格式：pbkdf2_sha256$迭代次数$盐(Base64)$哈希(Base64)；不带前缀的视为旧版明文，登录成功后重新哈希
+ * 单次哈希耗时由迭代次数决定（见 PasswordHashBenchmark），请求线程不要直接调用，经 PasswordHasher 执行
  */
 public class PasswordUtil {
-    
+
+    public static final String ALGORITHM_PREFIX = "pbkdf2_sha256$";
+    public static final int DEFAULT_ITERATIONS = 210_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private PasswordUtil() { }
-    
+
     public static String encryptPassword(String password) {
-        // TODO - finish me
-        return password;
+        return encryptPassword(password, DEFAULT_ITERATIONS);
     }
-    
+
+    public static String encryptPassword(String password, int iterations) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return ALGORITHM_PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$"
+            + encoder.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * 常数时间比较，格式损坏的哈希按不匹配处理
+     */
     public static boolean verifyPassword(String inputPassword, String storedPassword) {
         if (inputPassword == null || storedPassword == null) {
             return false;
         }
-        return storedPassword.equals(inputPassword);
+        if (!isHashed(storedPassword)) {
+            return MessageDigest.isEqual(inputPassword.getBytes(StandardCharsets.UTF_8),
+                storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = storedPassword.substring(ALGORITHM_PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[0]);
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[2]);
+            return iterations > 0 && MessageDigest.isEqual(expected, pbkdf2(inputPassword, salt, iterations));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static boolean isHashed(String storedPassword) {
+        return storedPassword != null && storedPassword.startsWith(ALGORITHM_PREFIX);
+    }
+
+    /**
+     * 旧版明文或迭代次数与当前配置不同的哈希需要在登录成功后重新生成
+     */
+    public static boolean needsRehash(String storedPassword, int iterations) {
+        return !isHashed(storedPassword)
+            || !storedPassword.startsWith(ALGORITHM_PREFIX + iterations + "$");
     }
-    
+
     public static boolean isPasswordStrong(String password) {
         // TODO - finish me
         return password != null && password.length() >= 3;
     }
-    
+
     public static String generateRandomPassword() {
         // TODO - finish me
         return "random_password";
     }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
 }
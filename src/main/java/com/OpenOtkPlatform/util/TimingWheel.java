@@ -0,0 +1,114 @@
+package com.OpenOtkPlatform.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 哈希时间轮 - 按截止时间登记 ID，到期后由推进线程批量取出
+ * 槽位数为 2 的幂，超过一圈的条目记录剩余圈数；登记与取消只做入队 / 打标记，O(1) 且可多线程调用，
+ * 槽位只由调用 advance 的单个线程访问。取消的条目留在槽位中，轮到该槽位时丢弃
+ * 到期精度为一个刻度：截止时间向上取整到刻度，不会提前到期
+ */
+public class TimingWheel {
+
+    private final long tickMs;
+    private final int mask;
+    private final ArrayDeque<Entry>[] buckets;
+    private final long startTime;
+    private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // 下一个待处理的刻度，仅推进线程读写
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, long startTime) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMs and wheelSize must be positive");
+        }
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickMs = tickMs;
+        this.mask = size - 1;
+        this.buckets = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.startTime = startTime;
+    }
+
+    /**
+     * 登记或改期：同一 ID 只保留最后一次登记的截止时间
+     */
+    public void schedule(Long key, long deadline) {
+        Entry entry = new Entry(key, deadline);
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        pending.add(entry);
+    }
+
+    public void cancel(Long key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 推进到 now，返回截止时间不晚于 now 的 ID；只能由单个线程调用
+     * 停顿较久时逐刻度补齐，跨圈条目的圈数照常递减
+     */
+    public List<Long> advance(long now) {
+        Entry added;
+        while ((added = pending.poll()) != null) {
+            if (!added.cancelled) {
+                long deadlineTick = Math.max(tick, Math.ceilDiv(added.deadline - startTime, tickMs));
+                added.rounds = (deadlineTick - tick) / buckets.length;
+                buckets[(int) (deadlineTick & mask)].add(added);
+            }
+        }
+
+        List<Long> expired = new ArrayList<>();
+        long target = Math.floorDiv(now - startTime, tickMs);
+        for (; tick <= target; tick++) {
+            ArrayDeque<Entry> bucket = buckets[(int) (tick & mask)];
+            for (int i = bucket.size(); i > 0; i--) {
+                Entry entry = bucket.poll();
+                if (entry.cancelled) {
+                    continue;
+                }
+                if (entry.rounds > 0) {
+                    entry.rounds--;
+                    bucket.add(entry);
+                } else if (entries.remove(entry.key, entry)) {
+                    expired.add(entry.key);
+                }
+            }
+        }
+        return expired;
+    }
+
+    private static final class Entry {
+        final Long key;
+        final long deadline;
+        long rounds;
+        volatile boolean cancelled;
+
+        Entry(Long key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+}
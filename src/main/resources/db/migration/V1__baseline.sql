@@ -0,0 +1,110 @@
+-- V1 基线：与引入版本化迁移前 init.sql 建出的表结构一致（已有库上全部为 IF NOT EXISTS，不做改动）
+
+-- 主键号段表（items / orders 的 @TableGenerator，每次分配 50 个ID）
+CREATE TABLE IF NOT EXISTS id_generator (
+    name VARCHAR(64) PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
+-- 用户表
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    phone VARCHAR(20) NOT NULL,
+    balance DECIMAL(10,2) NOT NULL DEFAULT 0.00,
+    version BIGINT NOT NULL DEFAULT 0,
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_username (username),
+    INDEX idx_email (email)
+);
+
+-- 商品表
+CREATE TABLE IF NOT EXISTS items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    description TEXT,
+    price DECIMAL(10,2) NOT NULL,
+    seller_id BIGINT NOT NULL,
+    stock INT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0,
+    available BOOLEAN NOT NULL DEFAULT FALSE,
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_seller_id (seller_id),
+    INDEX idx_available (available),
+    INDEX idx_name (name),
+    FOREIGN KEY (seller_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- 订单表
+CREATE TABLE IF NOT EXISTS orders (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    buyer_id BIGINT NOT NULL,
+    seller_id BIGINT NOT NULL,
+    quantity BIGINT NOT NULL DEFAULT 1,
+    total_price DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    version BIGINT NOT NULL DEFAULT 0,
+    idempotency_key VARCHAR(64) UNIQUE,
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_buyer_id (buyer_id),
+    INDEX idx_seller_id (seller_id),
+    INDEX idx_status (status),
+    INDEX idx_item_id (item_id),
+    FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
+    FOREIGN KEY (buyer_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (seller_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- 系统日志表
+CREATE TABLE IF NOT EXISTS system_logs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    operation_type VARCHAR(50) NOT NULL,
+    user_id BIGINT,
+    description TEXT CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL,
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_user_id (user_id),
+    INDEX idx_operation_type (operation_type),
+    INDEX idx_create_time (create_time),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE SET NULL
+);
+
+-- 余额流水表（入账先追加为未合并流水，由应用批量合并进 users.balance）
+CREATE TABLE IF NOT EXISTS balance_journal (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    entry_type VARCHAR(10) NOT NULL,
+    amount DECIMAL(12,2) NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    ref_id BIGINT,
+    applied BOOLEAN NOT NULL DEFAULT FALSE,
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_user_id (user_id),
+    INDEX idx_applied (applied)
+);
+
+-- 用户订单汇总表（由应用增量维护，定时对账从 orders 重建）
+CREATE TABLE IF NOT EXISTS user_order_summary (
+    user_id BIGINT PRIMARY KEY,
+    total_orders BIGINT NOT NULL DEFAULT 0,
+    pending_orders BIGINT NOT NULL DEFAULT 0,
+    completed_orders BIGINT NOT NULL DEFAULT 0,
+    total_spent DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    sold_orders BIGINT NOT NULL DEFAULT 0,
+    total_earned DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 商品销售汇总表
+CREATE TABLE IF NOT EXISTS item_sales_summary (
+    item_id BIGINT PRIMARY KEY,
+    total_orders BIGINT NOT NULL DEFAULT 0,
+    completed_orders BIGINT NOT NULL DEFAULT 0,
+    total_revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
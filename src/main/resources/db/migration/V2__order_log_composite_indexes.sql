@@ -0,0 +1,6 @@
+-- 按买家 / 卖家 + 状态查询订单各走一个组合索引，create_time 供按时间排序
+CREATE INDEX idx_buyer_status_time ON orders (buyer_id, status, create_time);
+CREATE INDEX idx_seller_status_time ON orders (seller_id, status, create_time);
+
+-- 按用户 + 操作类型查询日志
+CREATE INDEX idx_user_operation_time ON system_logs (user_id, operation_type, create_time);
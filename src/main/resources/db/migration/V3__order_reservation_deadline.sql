@@ -0,0 +1,3 @@
+-- 待确认订单的库存预占截止时间，过期由 StockReservationService 自动取消并回补库存
+-- 已有的待确认订单保持 NULL，首次启动时由应用补上截止时间（启动时刻 + 预占时长）
+ALTER TABLE orders ADD COLUMN reserved_until DATETIME NULL;
@@ -0,0 +1,53 @@
+package com.OpenOtkPlatform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并发测试工具 - 所有任务在同一起跑线放行，尽量制造真实的行锁 / 版本冲突
+ */
+public final class ConcurrencyTestSupport {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private ConcurrencyTestSupport() { }
+
+    /**
+     * 用户名 / 邮箱等唯一字段的后缀，测试间共享同一个库时避免冲突
+     */
+    public static int nextId() {
+        return SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * 用 threads 个线程执行全部任务，按提交顺序返回结果；任一任务抛异常则原样抛出
+     */
+    public static <T> List<T> runConcurrently(int threads, List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.OpenOtkPlatform.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 执行计划守卫测试 - 在真实 MySQL 上按迁移脚本建表、灌入数据后执行 EXPLAIN，受检查询不得全表扫描或偏离预期索引
+ * 需要 Docker，没有时整个类跳过
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = "schema.explain-guard.enabled=false")
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanGuardMySqlTest {
+
+    private static final int USERS = 200;
+    private static final int ITEMS = 50;
+    private static final int ORDERS = 5000;
+    private static final int LOGS = 5000;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private QueryPlanGuard queryPlanGuard;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void guardedQueriesUseExpectedIndexes() {
+        seed();
+        assertThat(queryPlanGuard.check()).isEmpty();
+    }
+
+    // 空表上优化器的选择没有参考意义，灌入足够的行并更新统计信息
+    private void seed() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[] {i, "plan_user_" + i, "password", "plan" + i + "@test.com", "139" + String.format("%08d", i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password, email, phone) VALUES (?, ?, ?, ?, ?)", users);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 1; i <= ITEMS; i++) {
+            items.add(new Object[] {i, "plan_item_" + i, 10.0, i % USERS + 1, 100});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, name, price, seller_id, stock) VALUES (?, ?, ?, ?, ?)", items);
+
+        List<Object[]> orders = new ArrayList<>();
+        String[] statuses = {"PENDING", "CONFIRMED", "COMPLETED", "CANCELLED"};
+        for (int i = 1; i <= ORDERS; i++) {
+            int itemId = i % ITEMS + 1;
+            int buyerId = (i * 7) % USERS + 1;
+            orders.add(new Object[] {i, itemId, buyerId, itemId % USERS + 1, 1, 10.0, statuses[i % statuses.length]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, item_id, buyer_id, seller_id, quantity, total_price, status) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)", orders);
+
+        List<Object[]> logs = new ArrayList<>();
+        String[] operations = {"LOGIN", "LOGOUT", "ORDER_CREATE", "ITEM_UPDATE"};
+        for (int i = 1; i <= LOGS; i++) {
+            logs.add(new Object[] {operations[i % operations.length], i % USERS + 1, "plan log " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO system_logs (operation_type, user_id, description) VALUES (?, ?, ?)", logs);
+
+        jdbcTemplate.execute("ANALYZE TABLE users, items, orders, system_logs");
+    }
+}
@@ -0,0 +1,24 @@
+package com.OpenOtkPlatform.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 执行计划守卫测试 - H2 上不执行 EXPLAIN，但守卫的示例参数必须与仓库查询实际生成的 SQL 对得上
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class QueryPlanGuardTest {
+
+    @Autowired
+    private QueryPlanGuard queryPlanGuard;
+
+    @Test
+    void guardedQueriesMatchRepositoryQueries() {
+        assertThat(queryPlanGuard.check()).isEmpty();
+    }
+}
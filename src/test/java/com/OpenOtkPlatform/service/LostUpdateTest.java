@@ -0,0 +1,178 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.domain.Order;
+import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.repository.ItemRepository;
+import com.OpenOtkPlatform.repository.OrderRepository;
+import com.OpenOtkPlatform.repository.UserRepository;
+import com.OpenOtkPlatform.service.OrderPlacementService.PlacementResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static com.OpenOtkPlatform.ConcurrencyTestSupport.nextId;
+import static com.OpenOtkPlatform.ConcurrencyTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 丢失更新测试 - 同一账户并发充值 / 扣款、同一订单并发确认 / 取消，结果必须与成功次数对得上
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class LostUpdateTest {
+
+    private static final int REQUESTS = 400;
+    private static final int THREADS = 16;
+    private static final int ORDERS = 40;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+
+    @Autowired
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentRechargesAndDeductionsLoseNothing() throws Exception {
+        User user = newUser(1000.0);
+
+        // 一半充值 5 元、一半扣款 3 元，交错提交
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            tasks.add(i % 2 == 0
+                ? () -> userService.rechargeBalance(user.getId(), 5.0)
+                : () -> userService.deductBalance(user.getId(), 3.0));
+        }
+        List<Boolean> results = runConcurrently(THREADS, tasks);
+
+        long recharged = 0;
+        long deducted = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            if (results.get(i)) {
+                if (i % 2 == 0) {
+                    recharged++;
+                } else {
+                    deducted++;
+                }
+            }
+        }
+        assertThat(recharged).isEqualTo(REQUESTS / 2);
+        assertThat(deducted).isPositive();
+
+        double expected = 1000.0 + recharged * 5.0 - deducted * 3.0;
+        assertThat(availableBalance(user)).isEqualTo(expected);
+
+        // 合并入账后 users.balance 本身也必须一致
+        while (balanceLedger.snapshot()) {
+            // 合并完为止
+        }
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getBalance()).isEqualTo(expected);
+        assertThat(balanceLedger.getPendingCredit(user.getId())).isZero();
+    }
+
+    @Test
+    void racingConfirmAndCancelSettleEachOrderOnce() throws Exception {
+        User buyer = newUser(10_000.0);
+        List<User> sellers = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            User seller = newUser(0.0);
+            Item item = itemRepository.save(new Item("raced", "confirm/cancel race", 10.0, seller.getId(), 5));
+            PlacementResult result = orderPlacementService.placeOrder(item.getId(), buyer.getId(), seller.getId(), 1L, 10.0);
+            assertThat(result.isSuccess()).isTrue();
+            sellers.add(seller);
+            items.add(item);
+            orders.add(result.getOrder());
+        }
+
+        // 每个订单同时收到一次确认和两次取消
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (Order order : orders) {
+            tasks.add(() -> orderService.confirmOrder(order.getId()));
+            tasks.add(() -> orderService.cancelOrder(order.getId()));
+            tasks.add(() -> orderService.cancelOrder(order.getId()));
+        }
+        List<Boolean> results = runConcurrently(THREADS, tasks);
+
+        for (int i = 0; i < ORDERS; i++) {
+            int cancels = (results.get(i * 3 + 1) ? 1 : 0) + (results.get(i * 3 + 2) ? 1 : 0);
+            assertThat(cancels).as("successful cancels of order %d", orders.get(i).getId()).isEqualTo(1);
+            assertThat(orderRepository.findById(orders.get(i).getId()).orElseThrow().getStatus())
+                .isEqualTo(Order.STATUS_CANCELLED);
+            // 库存只回补一次，卖家货款只扣回一次
+            assertThat(itemRepository.findById(items.get(i).getId()).orElseThrow().getStock()).isEqualTo(5);
+            assertThat(availableBalance(sellers.get(i))).isZero();
+        }
+        assertThat(availableBalance(buyer)).isEqualTo(10_000.0);
+    }
+
+    @Test
+    void updateFromCachedCopyKeepsVersion() {
+        User seller = newUser(0.0);
+        Item item = itemRepository.save(new Item("cached", "cached copy", 10.0, seller.getId(), 10));
+        assertThat(itemService.reduceStock(item.getId(), 1)).isTrue();
+
+        Item cached = itemService.getItemById(item.getId());
+        assertThat(cached.getVersion()).isEqualTo(itemRepository.findById(item.getId()).orElseThrow().getVersion());
+
+        // 最新副本可以更新，库存不随副本写回
+        cached.setPrice(12.0);
+        cached.setStock(100);
+        assertThat(itemService.updateItem(cached)).isTrue();
+        Item updated = itemRepository.findById(item.getId()).orElseThrow();
+        assertThat(updated.getPrice()).isEqualTo(12.0);
+        assertThat(updated.getStock()).isEqualTo(9);
+    }
+
+    @Test
+    void staleCopyCannotUndoStockChanges() {
+        User seller = newUser(0.0);
+        Item item = itemRepository.save(new Item("stale", "stale copy", 10.0, seller.getId(), 10));
+        assertThat(itemService.reduceStock(item.getId(), 1)).isTrue();
+        Item stale = itemService.getItemById(item.getId());
+
+        // 副本取出后库存又被扣减一次，基于旧副本的更新必须按冲突失败
+        assertThat(itemService.reduceStock(item.getId(), 1)).isTrue();
+        stale.setPrice(12.0);
+        assertThat(itemService.updateItem(stale)).isFalse();
+
+        Item current = itemRepository.findById(item.getId()).orElseThrow();
+        assertThat(current.getStock()).isEqualTo(8);
+        assertThat(current.getPrice()).isEqualTo(10.0);
+    }
+
+    private double availableBalance(User user) {
+        return balanceLedger.getAvailableBalance(userRepository.findById(user.getId()).orElseThrow());
+    }
+
+    private User newUser(double balance) {
+        int id = nextId();
+        User user = new User("race_user_" + id, "password", "race" + id + "@test.com", "139" + String.format("%08d", id));
+        user.setBalance(balance);
+        return userRepository.save(user);
+    }
+}
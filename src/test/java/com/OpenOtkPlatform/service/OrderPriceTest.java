@@ -0,0 +1,85 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.repository.ItemRepository;
+import com.OpenOtkPlatform.repository.OrderRepository;
+import com.OpenOtkPlatform.repository.UserRepository;
+import com.OpenOtkPlatform.service.OrderPlacementService.Outcome;
+import com.OpenOtkPlatform.service.OrderPlacementService.PlacementRequest;
+import com.OpenOtkPlatform.service.OrderPlacementService.PlacementResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static com.OpenOtkPlatform.ConcurrencyTestSupport.nextId;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 下单金额测试 - 客户端传入的总价必须与商品单价 × 数量一致，篡改的低价不能成交
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class OrderPriceTest {
+
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+
+    @Autowired
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void lowTotalPriceIsRejected() {
+        User seller = newUser(0.0);
+        User buyer = newUser(1000.0);
+        Item item = itemRepository.save(new Item("priced", "price check", 99.99, seller.getId(), 10));
+
+        PlacementResult result = orderPlacementService.placeOrder(item.getId(), buyer.getId(), seller.getId(), 2L, 0.01);
+
+        assertThat(result.getOutcome()).isEqualTo(Outcome.INVALID);
+        assertThat(orderRepository.findByItemId(item.getId())).isEmpty();
+        assertThat(itemRepository.findById(item.getId()).orElseThrow().getStock()).isEqualTo(10);
+        assertThat(availableBalance(buyer)).isEqualTo(1000.0);
+        assertThat(availableBalance(seller)).isZero();
+    }
+
+    @Test
+    void batchRejectsOnlyTheMispricedEntries() {
+        User seller = newUser(0.0);
+        User buyer = newUser(1000.0);
+        Item item = itemRepository.save(new Item("priced", "batch price check", 99.99, seller.getId(), 10));
+
+        List<PlacementResult> results = orderPlacementService.placeOrders(List.of(
+            new PlacementRequest(item.getId(), buyer.getId(), seller.getId(), 2L, 199.98),
+            new PlacementRequest(item.getId(), buyer.getId(), seller.getId(), 2L, 0.01)));
+
+        assertThat(results).extracting(PlacementResult::getOutcome).containsExactly(Outcome.SUCCESS, Outcome.INVALID);
+        assertThat(results.get(0).getOrder().getTotalPrice()).isEqualTo(199.98);
+        assertThat(itemRepository.findById(item.getId()).orElseThrow().getStock()).isEqualTo(8);
+        assertThat(availableBalance(buyer)).isEqualTo(1000.0 - 199.98);
+        assertThat(availableBalance(seller)).isEqualTo(199.98);
+    }
+
+    private double availableBalance(User user) {
+        return balanceLedger.getAvailableBalance(userRepository.findById(user.getId()).orElseThrow());
+    }
+
+    private User newUser(double balance) {
+        int id = nextId();
+        User user = new User("price_user_" + id, "password", "price" + id + "@test.com", "137" + String.format("%08d", id));
+        user.setBalance(balance);
+        return userRepository.save(user);
+    }
+}
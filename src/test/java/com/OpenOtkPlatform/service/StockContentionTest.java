@@ -0,0 +1,109 @@
+package com.OpenOtkPlatform.service;
+
+import com.OpenOtkPlatform.domain.Item;
+import com.OpenOtkPlatform.domain.User;
+import com.OpenOtkPlatform.repository.ItemRepository;
+import com.OpenOtkPlatform.repository.OrderRepository;
+import com.OpenOtkPlatform.repository.UserRepository;
+import com.OpenOtkPlatform.service.OrderPlacementService.Outcome;
+import com.OpenOtkPlatform.service.OrderPlacementService.PlacementRequest;
+import com.OpenOtkPlatform.service.OrderPlacementService.PlacementResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static com.OpenOtkPlatform.ConcurrencyTestSupport.nextId;
+import static com.OpenOtkPlatform.ConcurrencyTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 库存争用测试 - 400 个并发下单抢 100 件库存，不允许超卖
+ * 覆盖实际下单的两条路径（单条 placeOrder / 批量 placeOrders），均在锁定的商品行上扣减
+ * 吞吐量对比见 JMH 基准 StockUpdateBenchmark
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class StockContentionTest {
+
+    private static final int STOCK = 100;
+    private static final int REQUESTS = 400;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+
+    @Autowired
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentBatchPlacementsSellExactlyTheStock() throws Exception {
+        User seller = newUser(0.0);
+        User buyer = newUser(10_000.0);
+        Item item = itemRepository.save(new Item("contended", "batch contention", 1.0, seller.getId(), STOCK));
+
+        // 100 个批次各 4 条，共 400 条争抢 100 件
+        List<Callable<List<PlacementResult>>> tasks = new ArrayList<>();
+        for (int i = 0; i < REQUESTS / 4; i++) {
+            List<PlacementRequest> batch = new ArrayList<>();
+            for (int j = 0; j < 4; j++) {
+                batch.add(new PlacementRequest(item.getId(), buyer.getId(), seller.getId(), 1L, 1.0));
+            }
+            tasks.add(() -> orderPlacementService.placeOrders(batch));
+        }
+        List<PlacementResult> results = new ArrayList<>();
+        runConcurrently(THREADS, tasks).forEach(results::addAll);
+
+        assertThat(results.stream().filter(PlacementResult::isSuccess).count()).isEqualTo(STOCK);
+        assertThat(results).filteredOn(result -> !result.isSuccess())
+            .allMatch(result -> result.getOutcome() == Outcome.OUT_OF_STOCK);
+        Item reloaded = itemRepository.findById(item.getId()).orElseThrow();
+        assertThat(reloaded.getStock()).isZero();
+        assertThat(reloaded.getAvailable()).isFalse();
+        assertThat(orderRepository.findByItemId(item.getId())).hasSize(STOCK);
+        assertThat(balanceLedger.getAvailableBalance(userRepository.findById(buyer.getId()).orElseThrow()))
+            .isEqualTo(10_000.0 - STOCK);
+    }
+
+    @Test
+    void concurrentPlacementsSellExactlyTheStock() throws Exception {
+        User seller = newUser(0.0);
+        User buyer = newUser(10_000.0);
+        Item item = itemRepository.save(new Item("contended", "order contention", 2.0, seller.getId(), STOCK));
+
+        List<Callable<PlacementResult>> tasks = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            tasks.add(() -> orderPlacementService.placeOrder(item.getId(), buyer.getId(), seller.getId(), 1L, 2.0));
+        }
+        List<PlacementResult> results = runConcurrently(THREADS, tasks);
+
+        long succeeded = results.stream().filter(PlacementResult::isSuccess).count();
+        assertThat(succeeded).isEqualTo(STOCK);
+        assertThat(results).filteredOn(result -> !result.isSuccess())
+            .allMatch(result -> result.getOutcome() == Outcome.OUT_OF_STOCK);
+        assertThat(itemRepository.findById(item.getId()).orElseThrow().getStock()).isZero();
+        assertThat(orderRepository.findByItemId(item.getId())).hasSize(STOCK);
+        assertThat(balanceLedger.getAvailableBalance(userRepository.findById(buyer.getId()).orElseThrow()))
+            .isEqualTo(10_000.0 - STOCK * 2.0);
+    }
+
+    private User newUser(double balance) {
+        int id = nextId();
+        User user = new User("stock_user_" + id, "password", "stock" + id + "@test.com", "138" + String.format("%08d", id));
+        user.setBalance(balance);
+        return userRepository.save(user);
+    }
+}
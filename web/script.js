@@ -2,18 +2,44 @@ const API_BASE_URL = 'http://localhost:8080/api';
 
 // 用户管理
 let currentUser = null;
+let sessionToken = localStorage.getItem('sessionToken');
+// 用户中心页的实时推送连接
+let userStream = null;
+
+// 带上登录令牌的请求头
+function authHeaders(headers = {}) {
+    return sessionToken ? { ...headers, 'Authorization': `Bearer ${sessionToken}` } : headers;
+}
+
+// 令牌过期或已注销：清除本地登录状态
+function clearSession() {
+    if (userStream) {
+        userStream.close();
+        userStream = null;
+    }
+    currentUser = null;
+    sessionToken = null;
+    localStorage.removeItem('currentUser');
+    localStorage.removeItem('sessionToken');
+}
 
 // API请求工具函数
 async function apiRequest(url, options = {}) {
     try {
         const response = await fetch(`${API_BASE_URL}${url}`, {
-            headers: {
+            ...options,
+            headers: authHeaders({
                 'Content-Type': 'application/json',
                 ...options.headers
-            },
-            ...options
+            })
         });
         
+        if (response.status === 401) {
+            clearSession();
+            checkLoginStatus();
+            throw new Error('登录已过期，请重新登录');
+        }
+        
         const data = await response.json();
         
         // 检查响应是否包含success字段
@@ -33,6 +59,170 @@ async function apiRequest(url, options = {}) {
     }
 }
 
+// 批量查询合并器（DataLoader 风格）：同一轮同步代码内发起的单个ID查询在微任务中合并为一次 ?ids= 请求，
+// 相同ID只查一次；每个请求最多 maxBatch 个ID，不存在的ID对应的 Promise 以错误结束
+function createBatchLoader(path, maxBatch = 100) {
+    let pending = new Map();
+    
+    async function flush() {
+        const batch = pending;
+        pending = new Map();
+        const ids = [...batch.keys()];
+        for (let i = 0; i < ids.length; i += maxBatch) {
+            const chunk = ids.slice(i, i + maxBatch);
+            try {
+                const result = await apiRequest(`${path}?ids=${chunk.join(',')}`);
+                const byId = new Map(result.found.map(entry => [entry.id, entry]));
+                for (const id of chunk) {
+                    const entry = byId.get(id);
+                    for (const waiter of batch.get(id)) {
+                        entry ? waiter.resolve(entry) : waiter.reject(new Error(`${path}/${id} 不存在`));
+                    }
+                }
+            } catch (error) {
+                chunk.forEach(id => batch.get(id).forEach(waiter => waiter.reject(error)));
+            }
+        }
+    }
+    
+    return function load(id) {
+        id = Number(id);
+        return new Promise((resolve, reject) => {
+            if (pending.size === 0) {
+                queueMicrotask(flush);
+            }
+            if (!pending.has(id)) {
+                pending.set(id, []);
+            }
+            pending.get(id).push({ resolve, reject });
+        });
+    };
+}
+
+const loadItem = createBatchLoader('/items');
+const loadUser = createBatchLoader('/users');
+
+// 实时推送（SSE）：EventSource 无法携带 Authorization 头，这里用 fetch 逐行读取事件流
+// handlers 按事件名回调（payload 为解析后的 JSON）；收到 ready 时调用 onOpen(reconnected)，
+// 重连成功后调用方应重新拉取一次数据，补上断开期间错过的事件。断开后按 1s、2s、4s… 退避重连，最长 30s
+function openEventStream(path, handlers) {
+    const controller = new AbortController();
+    const stream = {
+        connected: false,
+        closed: false,
+        close() {
+            this.closed = true;
+            this.connected = false;
+            controller.abort();
+        }
+    };
+    let opened = false;
+    let retryDelay = 1000;
+    
+    function dispatch(name, data) {
+        if (name === 'ready') {
+            stream.connected = true;
+            retryDelay = 1000;
+            if (handlers.onOpen) {
+                handlers.onOpen(opened);
+            }
+            opened = true;
+        } else if (handlers[name]) {
+            handlers[name](JSON.parse(data));
+        }
+    }
+    
+    async function connect() {
+        const response = await fetch(`${API_BASE_URL}${path}`, {
+            headers: authHeaders({ 'Accept': 'text/event-stream' }),
+            signal: controller.signal
+        });
+        if (response.status === 401) {
+            clearSession();
+            checkLoginStatus();
+        }
+        if (response.status === 401 || response.status === 403 || response.status === 404) {
+            // 无权订阅或目标不存在，重连也不会成功
+            stream.closed = true;
+            return;
+        }
+        if (!response.ok) {
+            throw new Error(`事件流连接失败: ${response.status}`);
+        }
+        
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffer = '';
+        let name = 'message';
+        let data = '';
+        while (true) {
+            const { value, done } = await reader.read();
+            if (done) {
+                return;
+            }
+            buffer += value;
+            let index;
+            while ((index = buffer.indexOf('\n')) >= 0) {
+                const line = buffer.slice(0, index).replace(/\r$/, '');
+                buffer = buffer.slice(index + 1);
+                if (line === '') {
+                    // 空行结束一个事件；以 : 开头的心跳注释行不产生事件
+                    if (data) {
+                        dispatch(name, data);
+                    }
+                    name = 'message';
+                    data = '';
+                } else if (line.startsWith('event:')) {
+                    name = line.slice(6).trim();
+                } else if (line.startsWith('data:')) {
+                    data += (data ? '\n' : '') + line.slice(5).replace(/^ /, '');
+                }
+            }
+        }
+    }
+    
+    (async function run() {
+        while (!stream.closed) {
+            try {
+                await connect();
+            } catch (error) {
+                if (!stream.closed) {
+                    console.error('事件流中断:', error);
+                }
+            }
+            stream.connected = false;
+            if (stream.closed) {
+                return;
+            }
+            await new Promise(resolve => setTimeout(resolve, retryDelay));
+            retryDelay = Math.min(retryDelay * 2, 30000);
+        }
+    })();
+    
+    return stream;
+}
+
+// 生成下单幂等键，同一次购买的所有重试共用
+function newIdempotencyKey() {
+    if (window.crypto && crypto.randomUUID) {
+        return crypto.randomUUID();
+    }
+    return `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}`;
+}
+
+// 网络错误（请求可能已到达服务端）时带退避重试，仅用于带幂等键的请求
+async function apiRequestWithRetry(url, options = {}, retries = 2) {
+    for (let attempt = 0; ; attempt++) {
+        try {
+            return await apiRequest(url, options);
+        } catch (error) {
+            if (!(error instanceof TypeError) || attempt >= retries) {
+                throw error;
+            }
+            await new Promise(resolve => setTimeout(resolve, 300 * (attempt + 1)));
+        }
+    }
+}
+
 // 页面加载时初始化
 document.addEventListener('DOMContentLoaded', function() {
     loadProducts();
@@ -137,7 +327,7 @@ async function loadProductDetail() {
     }
     
     try {
-        const product = await apiRequest(`/items/${productId}`);
+        const product = await loadItem(productId);
         
         // 更新页面内容
         document.getElementById('productName').textContent = product.name;
@@ -162,6 +352,19 @@ async function loadProductDetail() {
                 updateTotalPricePreview(product.price, quantity);
             });
         }
+        
+        // 库存变化由服务端推送，重连后重新读取一次
+        openEventStream(`/items/${productId}/stream`, {
+            onOpen(reconnected) {
+                if (reconnected) {
+                    loadItem(productId).then(item => updateProductStock(item.stock, item.available, false))
+                        .catch(() => updateProductStock(0, false, true));
+                }
+            },
+            stock(event) {
+                updateProductStock(event.stock, event.available, event.deleted);
+            }
+        });
     } catch (error) {
         alert('商品不存在或加载失败');
         window.location.href = 'index.html';
@@ -169,6 +372,18 @@ async function loadProductDetail() {
     }
 }
 
+// 更新商品详情页的库存显示
+function updateProductStock(stock, available, deleted) {
+    const productStock = document.getElementById('productStock');
+    if (productStock) {
+        productStock.textContent = deleted ? '商品已下架' : (available ? `库存: ${stock}` : '已售罄');
+    }
+    const quantityInput = document.getElementById('quantityInput');
+    if (quantityInput) {
+        quantityInput.max = deleted ? 0 : stock;
+    }
+}
+
 // 更新总价预览
 function updateTotalPricePreview(price, quantity) {
     const totalPricePreview = document.getElementById('totalPricePreview');
@@ -194,7 +409,7 @@ async function buyProduct() {
     }
     
     try {
-        const product = await apiRequest(`/items/${productId}`);
+        const product = await loadItem(productId);
         
         if (product.stock <= 0) {
             alert('商品已售罄');
@@ -231,8 +446,9 @@ async function buyProduct() {
                 totalPrice: totalPrice
             };
             
-        await apiRequest('/orders', {
+        await apiRequestWithRetry('/orders', {
             method: 'POST',
+            headers: { 'Idempotency-Key': newIdempotencyKey() },
             body: JSON.stringify(orderData)
         });
         
@@ -274,7 +490,9 @@ async function handleLogin(event) {
         // 根据后端AuthController的LoginResponse格式处理
         if (data.success) {
             currentUser = data.user;
+            sessionToken = data.token;
             localStorage.setItem('currentUser', JSON.stringify(currentUser));
+            localStorage.setItem('sessionToken', sessionToken);
             checkLoginStatus();
             alert('登录成功！');
             window.location.href = 'index.html';
@@ -336,8 +554,8 @@ function showLogin() {
 async function handleLogout() {
     if (currentUser) {
         try {
-            // 调用后端logout接口记录系统日志
-            await apiRequest(`/auth/logout?userId=${currentUser.id}`, {
+            // 调用后端logout接口注销令牌并记录系统日志
+            await apiRequest('/auth/logout', {
                 method: 'POST'
             });
         } catch (error) {
@@ -346,8 +564,7 @@ async function handleLogout() {
         }
     }
     
-    currentUser = null;
-    localStorage.removeItem('currentUser');
+    clearSession();
     checkLoginStatus();
     alert('已退出登录');
     window.location.href = 'index.html';
@@ -371,7 +588,8 @@ async function rechargeBalance() {
     
     try {
         const response = await fetch(`${API_BASE_URL}/users/${currentUser.id}/recharge?amount=${amount}`, {
-            method: 'POST'
+            method: 'POST',
+            headers: authHeaders()
         });
         
         const data = await response.json();
@@ -395,7 +613,7 @@ async function refreshUserInfo() {
     if (!currentUser) return;
     
     try {
-        const user = await apiRequest(`/users/${currentUser.id}`);
+        const user = await loadUser(currentUser.id);
         if (user) {
             currentUser = user;
             localStorage.setItem('currentUser', JSON.stringify(currentUser));
@@ -406,6 +624,26 @@ async function refreshUserInfo() {
     }
 }
 
+// 只刷新余额显示，不重新渲染用户中心；短时间内多次调用合并为一次请求
+let balanceRefreshTimer = null;
+function scheduleBalanceRefresh() {
+    clearTimeout(balanceRefreshTimer);
+    balanceRefreshTimer = setTimeout(async () => {
+        if (!currentUser) return;
+        try {
+            const user = await loadUser(currentUser.id);
+            currentUser = user;
+            localStorage.setItem('currentUser', JSON.stringify(currentUser));
+            const profileBalance = document.getElementById('profileBalance');
+            if (profileBalance) {
+                profileBalance.textContent = (user.availableBalance ?? user.balance).toFixed(2);
+            }
+        } catch (error) {
+            console.error('刷新余额失败:', error);
+        }
+    }, 500);
+}
+
 // 商品发布功能
 function showPublishForm() {
     document.getElementById('publishModal').style.display = 'flex';
@@ -451,9 +689,9 @@ async function handlePublishItem(event) {
     try {
         const response = await fetch(`${API_BASE_URL}/items`, {
             method: 'POST',
-            headers: {
+            headers: authHeaders({
                 'Content-Type': 'application/json'
-            },
+            }),
             body: JSON.stringify({
                 name: name,
                 description: description,
@@ -584,7 +822,8 @@ async function loadBuyerOrders() {
     if (!buyerOrders) return;
     
     try {
-        const orders = await apiRequest(`/orders/buyer/${currentUser.id}`);
+        // 订单行已附带商品与买卖双方信息，整个列表只需一次请求
+        const orders = await apiRequest(`/orders/buyer/${currentUser.id}?enriched=true`);
         buyerOrders.innerHTML = '';
         
         if (orders.length === 0) {
@@ -593,8 +832,7 @@ async function loadBuyerOrders() {
         }
         
         for (const order of orders) {
-            const orderElement = await createOrderElement(order);
-            buyerOrders.appendChild(orderElement);
+            buyerOrders.appendChild(createOrderElement(order));
         }
     } catch (error) {
         buyerOrders.innerHTML = '<p style="text-align: center; color: #ff6b6b;">加载订单失败</p>';
@@ -610,7 +848,7 @@ async function loadSellerOrders() {
     if (!sellerOrders) return;
     
     try {
-        const orders = await apiRequest(`/orders/seller/${currentUser.id}`);
+        const orders = await apiRequest(`/orders/seller/${currentUser.id}?enriched=true`);
         sellerOrders.innerHTML = '';
         
         if (orders.length === 0) {
@@ -619,8 +857,7 @@ async function loadSellerOrders() {
         }
         
         for (const order of orders) {
-            const orderElement = await createOrderElement(order);
-            sellerOrders.appendChild(orderElement);
+            sellerOrders.appendChild(createOrderElement(order));
         }
     } catch (error) {
         sellerOrders.innerHTML = '<p style="text-align: center; color: #ff6b6b;">加载订单失败</p>';
@@ -633,71 +870,49 @@ async function loadUserOrders() {
     loadBuyerOrders();
 }
 
-// 创建订单元素
-async function createOrderElement(order) {
+// 创建订单元素（使用 enriched=true 返回的关联字段；商品或用户已删除时对应字段为空）
+function createOrderElement(order) {
     const orderDiv = document.createElement('div');
     orderDiv.className = 'order-item';
+    orderDiv.dataset.orderId = order.id;
     
-    try {
-        // 获取买家信息
-        const buyer = await apiRequest(`/users/${order.buyerId}`);
-        // 获取卖家信息
-        const seller = await apiRequest(`/users/${order.sellerId}`);
-        // 获取商品信息
-        const item = await apiRequest(`/items/${order.itemId}`);
-        
-        orderDiv.innerHTML = `
-            <div class="order-header">
-                <div class="order-id">订单 #${order.id}</div>
-                <div class="order-status status-${order.status.toLowerCase()}">${order.status}</div>
-            </div>
-            <div class="order-details">
-                <p><strong>商品:</strong> ${item.name}</p>
-                <p><strong>数量:</strong> ${order.quantity}</p>
-                <p><strong>总价:</strong> ¥${order.totalPrice.toFixed(2)}</p>
-                <div class="user-info-section">
-                    <div class="user-info-row">
-                        <strong>买家信息:</strong>
-                        <div class="user-details">
-                            <p>姓名: ${buyer.username}</p>
-                            <p>邮箱: ${buyer.email}</p>
-                            <p>电话: ${buyer.phone}</p>
-                        </div>
-                    </div>
-                    <div class="user-info-row">
-                        <strong>卖家信息:</strong>
-                        <div class="user-details">
-                            <p>姓名: ${seller.username}</p>
-                            <p>邮箱: ${seller.email}</p>
-                            <p>电话: ${seller.phone}</p>
-                        </div>
+    const itemLine = order.itemName != null
+        ? `<p><strong>商品:</strong> ${order.itemName}</p>`
+        : `<p><strong>商品ID:</strong> ${order.itemId}</p>`;
+    
+    orderDiv.innerHTML = `
+        <div class="order-header">
+            <div class="order-id">订单 #${order.id}</div>
+            <div class="order-status status-${order.status.toLowerCase()}">${order.status}</div>
+        </div>
+        <div class="order-details">
+            ${itemLine}
+            <p><strong>数量:</strong> ${order.quantity}</p>
+            <p><strong>总价:</strong> ¥${order.totalPrice.toFixed(2)}</p>
+            <div class="user-info-section">
+                <div class="user-info-row">
+                    <strong>买家信息:</strong>
+                    <div class="user-details">
+                        <p>姓名: ${order.buyerUsername ?? '-'}</p>
+                        <p>邮箱: ${order.buyerEmail ?? '-'}</p>
+                        <p>电话: ${order.buyerPhone ?? '-'}</p>
                     </div>
                 </div>
-                <p><strong>创建时间:</strong> ${new Date(order.createTime).toLocaleString()}</p>
-                <div class="order-actions">
-                    ${createOrderActions(order)}
+                <div class="user-info-row">
+                    <strong>卖家信息:</strong>
+                    <div class="user-details">
+                        <p>姓名: ${order.sellerUsername ?? '-'}</p>
+                        <p>邮箱: ${order.sellerEmail ?? '-'}</p>
+                        <p>电话: ${order.sellerPhone ?? '-'}</p>
+                    </div>
                 </div>
             </div>
-        `;
-    } catch (error) {
-        console.error('获取订单信息失败:', error);
-        // 如果获取信息失败，显示基本订单信息
-        orderDiv.innerHTML = `
-            <div class="order-header">
-                <div class="order-id">订单 #${order.id}</div>
-                <div class="order-status status-${order.status.toLowerCase()}">${order.status}</div>
-            </div>
-            <div class="order-details">
-                <p><strong>商品ID:</strong> ${order.itemId}</p>
-                <p><strong>数量:</strong> ${order.quantity}</p>
-                <p><strong>总价:</strong> ¥${order.totalPrice.toFixed(2)}</p>
-                <p><strong>创建时间:</strong> ${new Date(order.createTime).toLocaleString()}</p>
-                <div class="order-actions">
-                    ${createOrderActions(order)}
-                </div>
+            <p><strong>创建时间:</strong> ${new Date(order.createTime).toLocaleString()}</p>
+            <div class="order-actions">
+                ${createOrderActions(order)}
             </div>
-        `;
-    }
+        </div>
+    `;
     
     return orderDiv;
 }
@@ -729,6 +944,54 @@ function createOrderActions(order) {
     return actions;
 }
 
+// 订单事件：就地更新已渲染订单的状态与操作按钮；新订单不在列表中时重新加载对应列表
+function applyOrderEvent(event) {
+    const elements = document.querySelectorAll(`.order-item[data-order-id="${event.id}"]`);
+    elements.forEach(element => {
+        const statusElement = element.querySelector('.order-status');
+        statusElement.className = `order-status status-${event.status.toLowerCase()}`;
+        statusElement.textContent = event.status;
+        element.querySelector('.order-actions').innerHTML = createOrderActions(event);
+    });
+    
+    if (elements.length === 0 && currentUser) {
+        const buyerOrders = document.getElementById('buyerOrders');
+        const sellerOrders = document.getElementById('sellerOrders');
+        if (event.buyerId === currentUser.id && buyerOrders && buyerOrders.style.display !== 'none') {
+            loadBuyerOrders();
+        }
+        if (event.sellerId === currentUser.id && sellerOrders && sellerOrders.style.display !== 'none') {
+            loadSellerOrders();
+        }
+    }
+    scheduleBalanceRefresh();
+}
+
+// 订阅本人的订单推送，已连接时不重复订阅
+function startUserStream() {
+    if (userStream) {
+        return;
+    }
+    userStream = openEventStream(`/users/${currentUser.id}/stream`, {
+        onOpen(reconnected) {
+            if (reconnected) {
+                loadUserOrders();
+                scheduleBalanceRefresh();
+            }
+        },
+        order: applyOrderEvent
+    });
+}
+
+// 推送连接正常时订单状态与余额由推送更新，否则操作后手动刷新
+async function refreshAfterOrderAction() {
+    if (userStream && userStream.connected) {
+        return;
+    }
+    loadUserOrders();
+    await refreshUserInfo();
+}
+
 // 卖家确认订单
 async function confirmOrder(orderId) {
     if (!confirm('确定要确认这个订单吗？')) {
@@ -737,16 +1000,15 @@ async function confirmOrder(orderId) {
     
     try {
         const response = await fetch(`${API_BASE_URL}/orders/${orderId}/confirm`, {
-            method: 'POST'
+            method: 'POST',
+            headers: authHeaders()
         });
         
         const data = await response.json();
         
         if (data.success) {
             alert('订单确认成功！');
-            // 刷新订单列表
-            loadUserOrders();
-            await refreshUserInfo();
+            await refreshAfterOrderAction();
         } else {
             alert('订单确认失败: ' + data.message);
         }
@@ -764,16 +1026,15 @@ async function completeOrder(orderId) {
     
     try {
         const response = await fetch(`${API_BASE_URL}/orders/${orderId}/complete`, {
-            method: 'POST'
+            method: 'POST',
+            headers: authHeaders()
         });
         
         const data = await response.json();
         
         if (data.success) {
             alert('订单完成成功！');
-            // 刷新订单列表
-            loadUserOrders();
-            await refreshUserInfo();
+            await refreshAfterOrderAction();
         } else {
             alert('订单完成失败: ' + data.message);
         }
@@ -791,16 +1052,15 @@ async function cancelOrder(orderId) {
     
     try {
         const response = await fetch(`${API_BASE_URL}/orders/${orderId}/cancel`, {
-            method: 'POST'
+            method: 'POST',
+            headers: authHeaders()
         });
         
         const data = await response.json();
         
         if (data.success) {
             alert('订单取消成功！资金已退还到您的账户。');
-            // 刷新订单列表和用户信息
-            loadUserOrders();
-            await refreshUserInfo();
+            await refreshAfterOrderAction();
         } else {
             alert('订单取消失败: ' + data.message);
         }
@@ -825,8 +1085,11 @@ function getStatusColor(status) {
 function checkLoginStatus() {
     const storedUser = localStorage.getItem('currentUser');
     
-    if (storedUser) {
+    // 旧版本只保存了用户对象而没有令牌，需要重新登录
+    if (storedUser && sessionToken) {
         currentUser = JSON.parse(storedUser);
+    } else if (storedUser) {
+        clearSession();
     }
     
     // 更新导航栏用户信息
@@ -856,11 +1119,12 @@ function checkLoginStatus() {
             document.getElementById('profileUsername').textContent = currentUser.username;
             document.getElementById('profileEmail').textContent = currentUser.email;
             document.getElementById('profilePhone').textContent = currentUser.phone;
-            document.getElementById('profileBalance').textContent = currentUser.balance.toFixed(2);
+            document.getElementById('profileBalance').textContent = (currentUser.availableBalance ?? currentUser.balance).toFixed(2);
             
             // 加载用户商品和订单
             loadUserItems();
             loadUserOrders();
+            startUserStream();
         }
     } else {
         // 用户未登录